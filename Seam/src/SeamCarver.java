@@ -2,6 +2,9 @@ import edu.princeton.cs.algs4.Picture;
 import java.awt.Color;
 
 public class SeamCarver {
+    private static final Metrics.Histogram RELAXED = Metrics.histogram("seam.cellsRelaxed");
+    private static final Metrics.Histogram SEAM_NANOS = Metrics.histogram("seam.findNanos");
+
     private Picture picture;
     private double[][] energy; // energy[y][x]
 
@@ -64,6 +67,8 @@ public class SeamCarver {
 
     // Standard DP: O(W*H)
     public int[] findVerticalSeam() {
+        long start = Metrics.ENABLED ? System.nanoTime() : 0;
+        long relaxed = 0;   // edge relaxations in the DP
         int w = width(), h = height();
 
         double[][] distTo = new double[h][w];
@@ -89,6 +94,7 @@ public class SeamCarver {
                     int ny = y + 1;
                     if (nx < 0 || nx >= w) continue;
                     double cand = cur + energy[ny][nx];
+                    relaxed++;
                     if (cand < distTo[ny][nx]) {
                         distTo[ny][nx] = cand;
                         edgeTo[ny][nx] = x;
@@ -113,6 +119,10 @@ public class SeamCarver {
             seam[y] = x;
             x = edgeTo[y][x];
         }
+        if (Metrics.ENABLED) {
+            RELAXED.record(relaxed);
+            SEAM_NANOS.recordSince(start);
+        }
         return seam;
     }
 
@@ -0,0 +1,295 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * CsrGraphBuilder: converts an edge list of any size into the CSR edge file read by MappedSAP,
+ * holding only one run of edges in memory at a time.
+ *
+ * Input: text lines of non-negative integers below Integer.MAX_VALUE separated by commas, spaces or
+ * tabs; the first number of a line is the tail of an edge to each number after it. Any other byte
+ * (a '-' sign, a letter) is an IllegalArgumentException. This reads hypernyms.txt ("id,h1,h2,...")
+ * and plain "v w" edge lists alike; lines with a single number (such as the V and E header lines
+ * of an algs4 digraph file) add no edges.
+ *
+ * External sort: edges are packed as (v << 32 | w) longs, sorted in runs of at most runEdges, and
+ * written to temporary run files; a k-way merge of the runs then streams the edges in (v, w) order,
+ * drops duplicates, and writes the adjacency and offset sections of the output sequentially.
+ *
+ * File layout (little-endian):
+ *   header   int MAGIC, int VERSION, int V, int 0, long E, long 0      (32 bytes)
+ *   offsets  long[V + 1]: heads of v are adj[offsets[v] .. offsets[v + 1])
+ *   adj      int[E]
+ *
+ * Usage:
+ *   java CsrGraphBuilder <edge-list> <csr-file> [-run edges] [-V vertices]
+ */
+public final class CsrGraphBuilder {
+    static final int MAGIC = 0x43535247;   // "CSRG"
+    static final int VERSION = 1;
+    static final int HEADER = 32;
+
+    private static final int BUFFER = 1 << 20;
+
+    private CsrGraphBuilder() { }
+
+    // build csrFile from edgeFile, sorting at most runEdges edges in memory at a time;
+    // V = vertices, or one more than the largest vertex id if vertices < 0; returns { V, E }
+    public static long[] build(String edgeFile, String csrFile, int runEdges, int vertices) throws IOException {
+        if (edgeFile == null || csrFile == null) throw new IllegalArgumentException("Argument is null");
+        if (runEdges < 1) throw new IllegalArgumentException("run size must be positive");
+        File out = new File(csrFile).getAbsoluteFile();
+        List<File> runs = new ArrayList<>();
+        try {
+            int V = writeRuns(edgeFile, out.getParentFile(), runEdges, runs);
+            if (vertices >= 0) {
+                if (vertices < V) throw new IllegalArgumentException("edge list names vertex " + (V - 1)
+                                                                     + " but V = " + vertices);
+                V = vertices;
+            }
+            long E = merge(runs, out, V);
+            return new long[] { V, E };
+        } finally {
+            for (File run : runs) {
+                if (!run.delete()) run.deleteOnExit();
+            }
+        }
+    }
+
+    // sorted runs of packed edges; returns one more than the largest vertex id seen
+    private static int writeRuns(String edgeFile, File dir, int runEdges, List<File> runs) throws IOException {
+        RunWriter writer = new RunWriter(runEdges, dir, runs);
+        byte[] buf = new byte[BUFFER];
+        try (InputStream in = new FileInputStream(edgeFile)) {
+            long tail = -1, x = -1;       // x = number being read (it may span two reads), -1 between numbers
+            long line = 1;
+            for (int len = in.read(buf); len >= 0; len = in.read(buf)) {
+                for (int i = 0; i < len; i++) {
+                    int c = buf[i];
+                    if (c >= '0' && c <= '9') {
+                        x = (x < 0 ? 0 : 10 * x) + (c - '0');
+                        // ids stay below Integer.MAX_VALUE, so V = max id + 1 fits in an int
+                        if (x >= Integer.MAX_VALUE)
+                            throw new IllegalArgumentException("line " + line + ": vertex id too large");
+                        continue;
+                    }
+                    if (c != ',' && c != ' ' && c != '\t' && c != '\r' && c != '\n')
+                        throw new IllegalArgumentException("line " + line + ": unexpected byte 0x"
+                                                           + Integer.toHexString(c & 0xFF) + " in " + edgeFile);
+                    if (x >= 0) {
+                        if (tail < 0) tail = x;
+                        else writer.add(tail, x);
+                        x = -1;
+                    }
+                    if (c == '\n') {
+                        tail = -1;
+                        line++;
+                    }
+                }
+            }
+            if (x >= 0 && tail >= 0) writer.add(tail, x);   // last line without a newline
+        }
+        writer.finish();
+        return writer.V;
+    }
+
+    // buffers edges and writes each full buffer as a sorted run file
+    private static class RunWriter {
+        private final int runEdges;
+        private final File dir;
+        private final List<File> runs;
+        private long[] run;
+        private int size;
+        int V;
+
+        RunWriter(int runEdges, File dir, List<File> runs) {
+            this.runEdges = runEdges;
+            this.dir = dir;
+            this.runs = runs;
+            run = new long[Math.min(runEdges, 1 << 20)];
+        }
+
+        void add(long v, long w) throws IOException {
+            if (size == run.length) {
+                if (size == runEdges) {
+                    runs.add(writeRun(run, size, dir));
+                    size = 0;
+                } else {
+                    run = Arrays.copyOf(run, (int) Math.min(runEdges, 2L * size));
+                }
+            }
+            run[size++] = (v << 32) | w;
+            V = (int) Math.max(V, Math.max(v, w) + 1);
+        }
+
+        void finish() throws IOException {
+            if (size > 0 || runs.isEmpty()) runs.add(writeRun(run, size, dir));
+            size = 0;
+        }
+    }
+
+    private static File writeRun(long[] run, int size, File dir) throws IOException {
+        Arrays.parallelSort(run, 0, size);
+        File file = File.createTempFile("edges", ".run", dir);
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), BUFFER))) {
+            for (int i = 0; i < size; i++) {
+                if (i == 0 || run[i] != run[i - 1]) out.writeLong(run[i]);
+            }
+        }
+        return file;
+    }
+
+    // k-way merge of the runs into the CSR file; returns E
+    private static long merge(List<File> runs, File out, int V) throws IOException {
+        int k = runs.size();
+        DataInputStream[] in = new DataInputStream[k];
+        long[] head = new long[k];
+        int[] heap = new int[k];      // run indices, min-heap on head[]
+        int n = 0;
+        try (RandomAccessFile raf = new RandomAccessFile(out, "rw")) {
+            raf.setLength(0);
+            FileChannel channel = raf.getChannel();
+            Section offsets = new Section(channel, HEADER);
+            Section adj = new Section(channel, HEADER + 8L * (V + 1));
+            for (int r = 0; r < k; r++) {
+                in[r] = new DataInputStream(new BufferedInputStream(new FileInputStream(runs.get(r)), BUFFER));
+                if (advance(in[r], head, r)) {
+                    heap[n++] = r;
+                    up(heap, head, n - 1);
+                }
+            }
+
+            long E = 0, previous = -1;
+            long nextVertex = 0;          // offsets are written for vertices < nextVertex
+            while (n > 0) {
+                int r = heap[0];
+                long edge = head[r];
+                if (advance(in[r], head, r)) {
+                    down(heap, head, n, 0);
+                } else {
+                    heap[0] = heap[--n];
+                    down(heap, head, n, 0);
+                }
+                if (edge == previous) continue;
+                previous = edge;
+                long v = edge >>> 32;
+                while (nextVertex <= v) {
+                    offsets.putLong(E);
+                    nextVertex++;
+                }
+                adj.putInt((int) edge);
+                E++;
+            }
+            while (nextVertex <= V) {
+                offsets.putLong(E);
+                nextVertex++;
+            }
+            offsets.flush();
+            adj.flush();
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(MAGIC).putInt(VERSION).putInt(V).putInt(0).putLong(E).putLong(0);
+            header.flip();
+            while (header.hasRemaining()) channel.write(header, header.position());
+            return E;
+        } finally {
+            for (DataInputStream s : in) {
+                if (s != null) s.close();
+            }
+        }
+    }
+
+    // load the next edge of run r into head[r]; false at the end of the run
+    private static boolean advance(DataInputStream in, long[] head, int r) throws IOException {
+        try {
+            head[r] = in.readLong();
+            return true;
+        } catch (EOFException e) {
+            return false;
+        }
+    }
+
+    private static void up(int[] heap, long[] head, int i) {
+        while (i > 0 && head[heap[(i - 1) / 2]] > head[heap[i]]) {
+            swap(heap, i, (i - 1) / 2);
+            i = (i - 1) / 2;
+        }
+    }
+
+    private static void down(int[] heap, long[] head, int n, int i) {
+        while (2 * i + 1 < n) {
+            int j = 2 * i + 1;
+            if (j + 1 < n && head[heap[j + 1]] < head[heap[j]]) j++;
+            if (head[heap[i]] <= head[heap[j]]) return;
+            swap(heap, i, j);
+            i = j;
+        }
+    }
+
+    private static void swap(int[] a, int i, int j) {
+        int t = a[i];
+        a[i] = a[j];
+        a[j] = t;
+    }
+
+    // sequential little-endian writer for one section of the output file
+    private static class Section {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER).order(ByteOrder.LITTLE_ENDIAN);
+        private long position;
+
+        Section(FileChannel channel, long position) {
+            this.channel = channel;
+            this.position = position;
+        }
+
+        void putInt(int x) throws IOException {
+            if (buffer.remaining() < 4) flush();
+            buffer.putInt(x);
+        }
+
+        void putLong(long x) throws IOException {
+            if (buffer.remaining() < 8) flush();
+            buffer.putLong(x);
+        }
+
+        void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) position += channel.write(buffer, position);
+            buffer.clear();
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.out.println("Usage: java CsrGraphBuilder <edge-list> <csr-file> [-run edges] [-V vertices]");
+            return;
+        }
+        int runEdges = 1 << 24;
+        int vertices = -1;
+        for (int i = 2; i < args.length; i++) {
+            switch (args[i]) {
+                case "-run": runEdges = Integer.parseInt(args[++i]); break;
+                case "-V":   vertices = Integer.parseInt(args[++i]); break;
+                default: throw new IllegalArgumentException("unknown option: " + args[i]);
+            }
+        }
+        long t0 = System.nanoTime();
+        long[] size = build(args[0], args[1], runEdges, vertices);
+        System.out.printf("%s: V = %d, E = %d, built in %.2f s%n", args[1], size[0], size[1], (System.nanoTime() - t0) / 1e9);
+    }
+}
@@ -0,0 +1,70 @@
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+
+/**
+ * LargeBuffer: a little-endian int/long array of any length outside the Java heap, as a row of
+ * 1 GB MappedByteBuffers (a single ByteBuffer stops at 2 GB). Element i of a region never straddles
+ * two chunks, since the chunk size is a multiple of 8.
+ *
+ * map() views a region of a file; scratch() maps a fresh temporary file that is deleted at once,
+ * so the pages live in the page cache rather than in direct memory (which is capped by the heap size).
+ */
+final class LargeBuffer {
+    private static final int CHUNK_BITS = 30;
+    private static final long CHUNK = 1L << CHUNK_BITS;
+    private static final long MASK = CHUNK - 1;
+
+    private final ByteBuffer[] chunks;
+    private final long bytes;
+
+    private LargeBuffer(ByteBuffer[] chunks, long bytes) {
+        this.chunks = chunks;
+        this.bytes = bytes;
+    }
+
+    // bytes [position, position + bytes) of the channel's file
+    static LargeBuffer map(FileChannel channel, FileChannel.MapMode mode, long position, long bytes) throws IOException {
+        int n = (int) ((bytes + CHUNK - 1) >>> CHUNK_BITS);
+        ByteBuffer[] chunks = new ByteBuffer[Math.max(1, n)];
+        if (n == 0) chunks[0] = ByteBuffer.allocate(0);
+        for (int c = 0; c < n; c++) {
+            long size = Math.min(CHUNK, bytes - c * CHUNK);
+            chunks[c] = channel.map(mode, position + c * CHUNK, size).order(ByteOrder.LITTLE_ENDIAN);
+        }
+        return new LargeBuffer(chunks, bytes);
+    }
+
+    // zero-filled read-write buffer of the given size, backed by an already deleted temporary file
+    static LargeBuffer scratch(long bytes) throws IOException {
+        File file = File.createTempFile("scratch", ".bin");
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.setLength(bytes);
+            return map(raf.getChannel(), FileChannel.MapMode.READ_WRITE, 0, bytes);   // mappings outlive the channel
+        } finally {
+            if (!file.delete()) file.deleteOnExit();
+        }
+    }
+
+    long bytes() {
+        return bytes;
+    }
+
+    int getInt(long index) {
+        long b = index << 2;
+        return chunks[(int) (b >>> CHUNK_BITS)].getInt((int) (b & MASK));
+    }
+
+    void putInt(long index, int x) {
+        long b = index << 2;
+        chunks[(int) (b >>> CHUNK_BITS)].putInt((int) (b & MASK), x);
+    }
+
+    long getLong(long index) {
+        long b = index << 3;
+        return chunks[(int) (b >>> CHUNK_BITS)].getLong((int) (b & MASK));
+    }
+}
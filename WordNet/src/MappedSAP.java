@@ -0,0 +1,202 @@
+import edu.princeton.cs.algs4.StdIn;
+import edu.princeton.cs.algs4.StdOut;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.util.Iterator;
+
+/**
+ * MappedSAP: shortest ancestral paths over a digraph stored in a CSR edge file (see
+ * CsrGraphBuilder), for graphs too large for a Digraph of Bag<Integer> objects on the heap.
+ *
+ * The offsets and adjacency sections are memory-mapped read-only, so the graph lives in the page
+ * cache. The per-vertex search state (visited mark and distance from each side, and the two BFS
+ * queues, 24 bytes per vertex) lives in a mapped scratch file, also outside the heap. Marks are
+ * version-stamped: a vertex counts as visited by the v side only if its stamp equals the current
+ * query number, so a query touches only the vertices it visits instead of clearing O(V) state.
+ * The heap holds nothing proportional to the graph, so GC pauses do not grow with it.
+ *
+ * Search: the two BFSs run interleaved, always expanding the side whose next vertex is nearer.
+ * A vertex marked by both sides is a common ancestor; a side stops once its frontier is no nearer
+ * than the best path found, since every later common ancestor would be at least that far.
+ *
+ * Queries are synchronized, since they share the scratch state; open one MappedSAP per thread
+ * for concurrent queries (the mapped graph pages are shared through the page cache).
+ *
+ * Usage:
+ *   java CsrGraphBuilder digraph.txt digraph.csr
+ *   java MappedSAP digraph.csr < pairs.txt
+ */
+public class MappedSAP {
+    // scratch record per vertex: stamp and distance for the v side, then for the w side
+    private static final int STAMP_V = 0, DIST_V = 1, STAMP_W = 2, DIST_W = 3;
+
+    private final int V;
+    private final long E;
+    private final LargeBuffer offsets;     // long[V + 1]
+    private final LargeBuffer adj;         // int[E]
+    private final LargeBuffer state;       // int[4V] records, then int[V] v queue, then int[V] w queue
+    private final long queueV, queueW;     // int index of each queue in state
+    private int query;
+
+    // map the CSR file written by CsrGraphBuilder
+    public MappedSAP(String filename) throws IOException {
+        if (filename == null) throw new IllegalArgumentException("Argument is null");
+        try (RandomAccessFile raf = new RandomAccessFile(filename, "r")) {
+            FileChannel channel = raf.getChannel();
+            ByteBuffer header = ByteBuffer.allocate(CsrGraphBuilder.HEADER).order(ByteOrder.LITTLE_ENDIAN);
+            if (channel.read(header, 0) < CsrGraphBuilder.HEADER || header.getInt(0) != CsrGraphBuilder.MAGIC)
+                throw new IllegalArgumentException(filename + " is not a CSR edge file");
+            if (header.getInt(4) != CsrGraphBuilder.VERSION)
+                throw new IllegalArgumentException("unsupported CSR edge file version " + header.getInt(4));
+            V = header.getInt(8);
+            E = header.getLong(16);
+            long adjStart = CsrGraphBuilder.HEADER + 8L * (V + 1);
+            if (V < 0 || E < 0 || channel.size() < adjStart + 4 * E)
+                throw new IllegalArgumentException(filename + " is truncated");
+            offsets = LargeBuffer.map(channel, FileChannel.MapMode.READ_ONLY, CsrGraphBuilder.HEADER, 8L * (V + 1));
+            adj = LargeBuffer.map(channel, FileChannel.MapMode.READ_ONLY, adjStart, 4 * E);
+        }
+        state = LargeBuffer.scratch(24L * Math.max(V, 1));
+        queueV = 4L * V;
+        queueW = 5L * V;
+    }
+
+    public int V() {
+        return V;
+    }
+
+    public long E() {
+        return E;
+    }
+
+    // length of shortest ancestral path between v and w; -1 if no such path
+    public synchronized int length(int v, int w) {
+        return search(single(v), single(w))[0];
+    }
+
+    // a common ancestor of v and w that participates in a shortest ancestral path; -1 if no such path
+    public synchronized int ancestor(int v, int w) {
+        return search(single(v), single(w))[1];
+    }
+
+    // length of shortest ancestral path between any vertex in v and any vertex in w; -1 if no such path
+    public synchronized int length(Iterable<Integer> v, Iterable<Integer> w) {
+        if (v == null || w == null) throw new IllegalArgumentException("Argument is null");
+        return search(v, w)[0];
+    }
+
+    // a common ancestor that participates in shortest ancestral path; -1 if no such path
+    public synchronized int ancestor(Iterable<Integer> v, Iterable<Integer> w) {
+        if (v == null || w == null) throw new IllegalArgumentException("Argument is null");
+        return search(v, w)[1];
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.out.println("Usage: java MappedSAP <csr-file> < pairs");
+            return;
+        }
+        MappedSAP sap = new MappedSAP(args[0]);
+        while (!StdIn.isEmpty()) {
+            int v = StdIn.readInt();
+            int w = StdIn.readInt();
+            int length = sap.length(v, w);
+            int ancestor = sap.ancestor(v, w);
+            StdOut.printf("length = %d, ancestor = %d\n", length, ancestor);
+        }
+    }
+
+    // ---- Private helpers ----
+
+    // { length, ancestor } of a shortest ancestral path, or { -1, -1 }
+    private int[] search(Iterable<Integer> vSources, Iterable<Integer> wSources) {
+        if (++query == Integer.MAX_VALUE) {    // stamps are about to wrap: clear them all
+            for (long x = 0; x < V; x++) {
+                state.putInt(4 * x + STAMP_V, 0);
+                state.putInt(4 * x + STAMP_W, 0);
+            }
+            query = 1;
+        }
+        long[] best = { Integer.MAX_VALUE, -1 };   // length, ancestor
+        long vFirst = queueV, vLast = queueV, wFirst = queueW, wLast = queueW;
+        for (Integer s : vSources) vLast = visit(source(s), 0, STAMP_V, vLast, best);
+        for (Integer s : wSources) wLast = visit(source(s), 0, STAMP_W, wLast, best);
+
+        while (vFirst < vLast || wFirst < wLast) {
+            boolean vSide;
+            if (vFirst == vLast) vSide = false;
+            else if (wFirst == wLast) vSide = true;
+            else vSide = dist(state.getInt(vFirst), DIST_V) <= dist(state.getInt(wFirst), DIST_W);
+
+            int x;
+            int d;
+            if (vSide) {
+                x = state.getInt(vFirst++);
+                d = dist(x, DIST_V);
+                if (d >= best[0]) {
+                    vFirst = vLast;
+                    continue;
+                }
+            } else {
+                x = state.getInt(wFirst++);
+                d = dist(x, DIST_W);
+                if (d >= best[0]) {
+                    wFirst = wLast;
+                    continue;
+                }
+            }
+            for (long e = offsets.getLong(x), end = offsets.getLong(x + 1); e < end; e++) {
+                int y = adj.getInt(e);
+                if (vSide) vLast = visit(y, d + 1, STAMP_V, vLast, best);
+                else wLast = visit(y, d + 1, STAMP_W, wLast, best);
+            }
+        }
+        if (best[1] < 0) return new int[] { -1, -1 };
+        return new int[] { (int) best[0], (int) best[1] };
+    }
+
+    // mark x at distance d from the side whose stamp slot is given, appending it to that side's
+    // queue at last; updates best if the other side has reached x; returns the new queue end
+    private long visit(int x, int d, int stampSlot, long last, long[] best) {
+        long record = 4L * x;
+        if (state.getInt(record + stampSlot) == query) return last;
+        state.putInt(record + stampSlot, query);
+        state.putInt(record + stampSlot + 1, d);
+        int other = (stampSlot == STAMP_V) ? STAMP_W : STAMP_V;
+        if (state.getInt(record + other) == query) {
+            int total = d + state.getInt(record + other + 1);
+            if (total < best[0]) {
+                best[0] = total;
+                best[1] = x;
+            }
+        }
+        state.putInt(last, x);
+        return last + 1;
+    }
+
+    private int source(Integer s) {
+        if (s == null) throw new IllegalArgumentException("Iterable contains null");
+        validateVertex(s);
+        return s;
+    }
+
+    private int dist(int x, int slot) {
+        return state.getInt(4L * x + slot);
+    }
+
+    private void validateVertex(int v) {
+        if (v < 0 || v >= V) throw new IllegalArgumentException("vertex out of range: " + v);
+    }
+
+    private static Iterable<Integer> single(int x) {
+        return () -> new Iterator<Integer>() {
+            private boolean used = false;
+            public boolean hasNext() { return !used; }
+            public Integer next() { used = true; return x; }
+        };
+    }
+}
@@ -0,0 +1,115 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+/**
+ * RootedDagValidator: checks that a digraph (edges point from a synset to its hypernyms) is a
+ * rooted DAG, in one Kahn-style pass over a CSR copy of the edges.
+ *
+ * The edges are bucketed by tail into CSR arrays (start[], adj[]) with in-degree counts. Vertices
+ * with in-degree 0 (synsets nothing points to) are queued, and removing a vertex lowers the
+ * in-degree of its hypernyms. Then
+ *   - the graph is acyclic iff every vertex is removed (a cycle keeps its vertices' in-degrees up),
+ *   - the roots are the vertices with out-degree 0, read off start[] during the same pass,
+ *   - reachability needs no search: in a DAG every path can be extended until it reaches a vertex
+ *     of out-degree 0, so when that vertex is unique every vertex reaches it.
+ * So a single pass settles all three conditions, in int arrays only (E + 3V ints beyond the edge list).
+ *
+ * Usage (standalone, on a hypernyms file: "id,hypernym,hypernym,..." per line):
+ *   java RootedDagValidator hypernyms.txt
+ */
+public final class RootedDagValidator {
+    private RootedDagValidator() { }
+
+    // root of the rooted DAG on V vertices with edges from[k] -> to[k], k < E;
+    // throws IllegalArgumentException if the graph has a cycle or not exactly one root
+    public static int validate(int V, int[] from, int[] to, int E) {
+        if (from == null || to == null) throw new IllegalArgumentException("Argument is null");
+        if (V < 0 || E < 0 || E > from.length || E > to.length) throw new IllegalArgumentException("invalid sizes");
+
+        // CSR by tail, and in-degrees
+        int[] start = new int[V + 1];
+        int[] indegree = new int[V];
+        for (int k = 0; k < E; k++) {
+            int v = from[k], w = to[k];
+            if (v < 0 || v >= V || w < 0 || w >= V)
+                throw new IllegalArgumentException("edge " + v + "->" + w + " out of range");
+            start[v + 1]++;
+            indegree[w]++;
+        }
+        for (int v = 0; v < V; v++) start[v + 1] += start[v];
+        int[] adj = new int[E];
+        int[] next = Arrays.copyOf(start, V);
+        for (int k = 0; k < E; k++) adj[next[from[k]]++] = to[k];
+
+        // Kahn: remove vertices of in-degree 0; queue[0..last) doubles as the removal order
+        int[] queue = next;
+        int first = 0, last = 0;
+        for (int v = 0; v < V; v++) {
+            if (indegree[v] == 0) queue[last++] = v;
+        }
+        int root = -1, roots = 0;
+        while (first < last) {
+            int v = queue[first++];
+            if (start[v] == start[v + 1]) {
+                root = v;
+                roots++;
+            }
+            for (int k = start[v]; k < start[v + 1]; k++) {
+                if (--indegree[adj[k]] == 0) queue[last++] = adj[k];
+            }
+        }
+
+        if (last < V) {
+            throw new IllegalArgumentException("Graph has a cycle; not a DAG (" + (V - last)
+                                               + " vertices on or above a cycle)");
+        }
+        if (roots != 1) {
+            throw new IllegalArgumentException("Graph is not rooted DAG (roots found: " + roots + ")");
+        }
+        return root;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.out.println("Usage: java RootedDagValidator hypernyms.txt");
+            return;
+        }
+        long t0 = System.nanoTime();
+        byte[] text = Files.readAllBytes(Paths.get(args[0]));
+
+        // parse "v,w1,w2,..." lines: the first number of a line is the tail of the edges that follow
+        int[] from = new int[1024], to = new int[1024];
+        int E = 0, V = 0, tail = -1;
+        for (int i = 0; i < text.length; i++) {
+            byte c = text[i];
+            if (c < '0' || c > '9') {
+                if (c == '\n') tail = -1;
+                continue;
+            }
+            int x = 0;
+            while (i < text.length && text[i] >= '0' && text[i] <= '9') x = 10 * x + (text[i++] - '0');
+            i--;
+            V = Math.max(V, x + 1);
+            if (tail < 0) {
+                tail = x;
+            } else {
+                if (E == from.length) {
+                    from = Arrays.copyOf(from, 2 * E);
+                    to = Arrays.copyOf(to, 2 * E);
+                }
+                from[E] = tail;
+                to[E++] = x;
+            }
+        }
+        long t1 = System.nanoTime();
+        try {
+            int root = validate(V, from, to, E);
+            System.out.printf("rooted DAG: %d vertices, %d edges, root %d%n", V, E, root);
+        } catch (IllegalArgumentException e) {
+            System.out.println("invalid: " + e.getMessage());
+        }
+        System.out.printf("parsed in %.1f ms, validated in %.1f ms%n", (t1 - t0) / 1e6, (System.nanoTime() - t1) / 1e6);
+    }
+}
@@ -5,6 +5,9 @@ import java.util.Arrays;
 import java.util.Iterator;
 
 public class SAP {
+    private static final Metrics.Histogram VISITED = Metrics.histogram("sap.verticesVisited");
+    private static final Metrics.Histogram QUERY_NANOS = Metrics.histogram("sap.queryNanos");
+
     private final Digraph G;
 
     // constructor takes a digraph (not necessarily a DAG)
@@ -64,6 +67,8 @@ public class SAP {
     // length = -1 and ancestor = -1 if no common ancestor found
     private int[] bfsTwoSources(Iterable<Integer> vSources, Iterable<Integer> wSources) {
         if (vSources == null || wSources == null) throw new IllegalArgumentException("Argument is null");
+        long start = Metrics.ENABLED ? System.nanoTime() : 0;
+        int visited = 0;   // vertices dequeued by either search
 
         // validate contents and prepare source arrays
         boolean[] vMarked = new boolean[G.V()];
@@ -113,6 +118,7 @@ public class SAP {
         // BFS from vSources already done partially; we must expand qV fully first.
         while (!qV.isEmpty()) {
             int x = qV.poll();
+            visited++;
             for (int y : G.adj(x)) {
                 if (!vMarked[y]) {
                     vMarked[y] = true;
@@ -125,6 +131,7 @@ public class SAP {
         // BFS from wSources and check against vDist for ancestors
         while (!qW.isEmpty()) {
             int x = qW.poll();
+            visited++;
             // Check if this vertex is common
             if (vMarked[x]) {
                 int total = vDist[x] + wDist[x];
@@ -153,6 +160,10 @@ public class SAP {
             }
         }
 
+        if (Metrics.ENABLED) {
+            VISITED.record(visited);
+            QUERY_NANOS.recordSince(start);
+        }
         if (bestAncestor == -1) return new int[]{-1, -1};
         return new int[]{bestLen, bestAncestor};
     }
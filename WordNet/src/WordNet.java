@@ -1,7 +1,7 @@
 import edu.princeton.cs.algs4.Digraph;
 import edu.princeton.cs.algs4.In;
-import edu.princeton.cs.algs4.DirectedCycle;
 
+import java.util.Arrays;
 import java.util.Map;
 import java.util.Set;
 import java.util.HashMap;
@@ -16,6 +16,29 @@ public class WordNet {
     private final Digraph G;
     private final SAP sap; // helper for shortest ancestral path
 
+    // the same edges as CSR arrays for nearest(): hypernyms of v are up[upStart[v] .. upStart[v + 1]),
+    // hyponyms of v are down[downStart[v] .. downStart[v + 1])
+    private final int[] upStart, up;
+    private final int[] downStart, down;
+    private final ThreadLocal<Scratch> local;
+
+    // per-thread search state for nearest(), reused across queries: a vertex's entries are valid
+    // only while its stamp equals the current query's
+    private static class Scratch {
+        final int[] stamp;
+        final int[] dist;
+        final int[] ancestors;   // up search queue: ancestors of the query in BFS order
+        final int[] queue;       // down search queue
+        int query;
+
+        Scratch(int V) {
+            stamp = new int[V];
+            dist = new int[V];
+            ancestors = new int[V];
+            queue = new int[V];
+        }
+    }
+
     // constructor takes the name of the two input files
     public WordNet(String synsets, String hypernyms) {
         if (synsets == null || hypernyms == null) throw new IllegalArgumentException("Argument is null");
@@ -56,7 +79,9 @@ public class WordNet {
         int V = idToSynset.size();
         G = new Digraph(V);
 
-        // Read hypernyms
+        // Read hypernyms (edges are also kept as arrays for the validator)
+        int[] from = new int[V], to = new int[V];
+        int E = 0;
         In inHyp = new In(hypernyms);
         while (!inHyp.isEmpty()) {
             String line = inHyp.readLine();
@@ -67,54 +92,29 @@ public class WordNet {
                 if (parts[i].length() == 0) continue;
                 int w = Integer.parseInt(parts[i]);
                 G.addEdge(v, w);
+                if (E == from.length) {
+                    from = Arrays.copyOf(from, 2 * E + 1);
+                    to = Arrays.copyOf(to, 2 * E + 1);
+                }
+                from[E] = v;
+                to[E++] = w;
             }
         }
         inHyp.close();
 
-        // Validate rooted DAG: acyclic and exactly one root (one vertex with outdegree 0)
-        DirectedCycle dc = new DirectedCycle(G);
-        if (dc.hasCycle()) {
-            throw new IllegalArgumentException("Graph has a cycle; not a DAG");
-        }
-
-        int roots = 0;
-        for (int v = 0; v < G.V(); v++) {
-            if (G.outdegree(v) == 0) roots++;
-        }
-        if (roots != 1) {
-            throw new IllegalArgumentException("Graph is not rooted DAG (roots found: " + roots + ")");
-        }
-
-        // Optionally check that root is ancestor of all vertices — with single root and DAG this commonly holds,
-        // but for strictness we ensure root is reachable from all vertices by BFS on reverse graph.
-        // (Not strictly necessary per some interpretations, but safe.)
-        // Build reverse graph and check paths from each vertex to root:
-        int root = -1;
-        for (int v = 0; v < G.V(); v++) if (G.outdegree(v) == 0) root = v;
-        // Quick reachability check: run DFS/BFS from every vertex to see if root reachable — but that is O(V*(V+E)).
-        // Instead, run DFS on reverse graph from root and check all vertices are reachable.
-        edu.princeton.cs.algs4.Digraph reverse = reverse(G);
-        boolean[] marked = new boolean[G.V()];
-        java.util.Stack<Integer> stack = new java.util.Stack<>();
-        stack.push(root);
-        marked[root] = true;
-        while (!stack.isEmpty()) {
-            int x = stack.pop();
-            for (int y : reverse.adj(x)) {
-                if (!marked[y]) {
-                    marked[y] = true;
-                    stack.push(y);
-                }
-            }
-        }
-        for (int v = 0; v < G.V(); v++) {
-            if (!marked[v]) {
-                throw new IllegalArgumentException("Graph root is not ancestor of all vertices; not rooted DAG");
-            }
-        }
+        // Validate rooted DAG: acyclic, exactly one root, and every vertex reaches it (one pass)
+        RootedDagValidator.validate(V, from, to, E);
 
         // Construct SAP helper
         sap = new SAP(G);
+
+        int[][] upward = csr(V, from, to, E);
+        int[][] downward = csr(V, to, from, E);
+        upStart = upward[0];
+        up = upward[1];
+        downStart = downward[0];
+        down = downward[1];
+        local = ThreadLocal.withInitial(() -> new Scratch(V));
     }
 
     // returns all WordNet nouns
@@ -149,25 +149,116 @@ public class WordNet {
         return idToSynset.get(ancestor);
     }
 
+    // the k nouns closest to noun (by distance(), nearest first, ties in search order), not counting noun itself;
+    // fewer if the WordNet has fewer other nouns.
+    // One search: a BFS up from noun's synsets gives each ancestor c its distance d(c), then a BFS down
+    // the hyponym edges, started at each ancestor when the search reaches d(c), settles synsets in
+    // increasing order of min over c of d(c) + depth below c, which is the ancestral path length.
+    // It stops as soon as k nouns are settled.
+    public List<String> nearest(String noun, int k) {
+        if (noun == null) throw new IllegalArgumentException("Argument is null");
+        if (!isNoun(noun)) throw new IllegalArgumentException("Noun not in WordNet");
+        if (k < 0) throw new IllegalArgumentException("k must be non-negative");
+        List<String> result = new ArrayList<>();
+        if (k == 0) return result;
+
+        Scratch s = local.get();
+        if (++s.query == 0) {                 // wrapped around: old stamps could collide
+            Arrays.fill(s.stamp, 0);
+            s.query = 1;
+        }
+        int query = s.query;
+        int[] stamp = s.stamp, dist = s.dist;
+
+        // up: ancestors in BFS order, so their distances never decrease
+        int[] ancestors = s.ancestors;
+        int a = 0;
+        for (int v : nounToIds.get(noun)) {
+            stamp[v] = query;
+            dist[v] = 0;
+            ancestors[a++] = v;
+        }
+        for (int i = 0; i < a; i++) {
+            int v = ancestors[i];
+            for (int e = upStart[v]; e < upStart[v + 1]; e++) {
+                int w = up[e];
+                if (stamp[w] != query) {
+                    stamp[w] = query;
+                    dist[w] = dist[v] + 1;
+                    ancestors[a++] = w;
+                }
+            }
+        }
+
+        // down: reuse the stamps with the next query number, starting each ancestor at its distance
+        int[] start = new int[a];
+        for (int i = 0; i < a; i++) start[i] = dist[ancestors[i]];
+        if (++s.query == 0) {
+            Arrays.fill(stamp, 0);
+            s.query = 1;
+        }
+        query = s.query;
+        int[] queue = s.queue;
+        int first = 0, last = 0, next = 0;
+        Set<String> settled = new HashSet<>();
+        settled.add(noun);
+        while (first < last || next < a) {
+            int v;
+            if (next < a && (first == last || start[next] <= dist[queue[first]])) {
+                v = ancestors[next];
+                int d = start[next++];
+                if (stamp[v] == query) continue;      // already reached at d or less
+                stamp[v] = query;
+                dist[v] = d;
+            } else {
+                v = queue[first++];
+            }
+            String synset = idToSynset.get(v);
+            if (synset != null) {
+                for (String n : synset.split(" ")) {
+                    if (settled.add(n)) {
+                        result.add(n);
+                        if (result.size() == k) return result;
+                    }
+                }
+            }
+            for (int e = downStart[v]; e < downStart[v + 1]; e++) {
+                int w = down[e];
+                if (stamp[w] != query) {
+                    stamp[w] = query;
+                    dist[w] = dist[v] + 1;
+                    queue[last++] = w;
+                }
+            }
+        }
+        return result;
+    }
+
     // do unit testing of this class
     public static void main(String[] args) {
         if (args.length < 2) {
-            System.out.println("Usage: java WordNet synsets.txt hypernyms.txt");
+            System.out.println("Usage: java WordNet synsets.txt hypernyms.txt [noun k]");
             return;
         }
         WordNet wn = new WordNet(args[0], args[1]);
         // simple interactive tests via stdin not required here; just print counts
         System.out.println("Nouns count: " + ((java.util.Set<String>)wn.nouns()).size());
+        if (args.length >= 4) {
+            long t0 = System.nanoTime();
+            List<String> near = wn.nearest(args[2], Integer.parseInt(args[3]));
+            System.out.printf("%d nearest to %s (%.2f ms):%n", near.size(), args[2], (System.nanoTime() - t0) / 1e6);
+            for (String n : near) System.out.println("  " + n);
+        }
     }
 
-    // helper to produce reverse digraph
-    private static Digraph reverse(Digraph G) {
-        Digraph R = new Digraph(G.V());
-        for (int v = 0; v < G.V(); v++) {
-            for (int w : G.adj(v)) {
-                R.addEdge(w, v);
-            }
-        }
-        return R;
+    // CSR of the edges tails[k] -> heads[k], k < E: { start[V + 1], adj[E] }
+    private static int[][] csr(int V, int[] tails, int[] heads, int E) {
+        int[] start = new int[V + 1];
+        for (int k = 0; k < E; k++) start[tails[k] + 1]++;
+        for (int v = 0; v < V; v++) start[v + 1] += start[v];
+        int[] adj = new int[E];
+        int[] next = Arrays.copyOf(start, V);
+        for (int k = 0; k < E; k++) adj[next[tails[k]]++] = heads[k];
+        return new int[][] { start, adj };
     }
 }
@@ -1,12 +1,13 @@
-import edu.princeton.cs.algs4.FlowEdge;
-import edu.princeton.cs.algs4.FlowNetwork;
-import edu.princeton.cs.algs4.FordFulkerson;
 import edu.princeton.cs.algs4.In;
 import edu.princeton.cs.algs4.StdOut;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 
 public class BaseballElimination {
     private final int n;
@@ -17,6 +18,47 @@ public class BaseballElimination {
     private final int[] remaining;
     private final int[][] games;
 
+    // results are computed once per team: solved[x] is set after the first query,
+    // subset[x] is then R as team indices and certificate[x] as names (both null if x is not eliminated)
+    private final boolean[] solved;
+    private final int[][] subset;
+    private final List<String>[] certificate;
+
+    // Elimination is monotone in w + r: if y is eliminated by R and w[x] + r[x] <= w[y] + r[y],
+    // then x is eliminated by R (or by R - {x} when x is in R, since x adds at most w[x] + r[x]
+    // to R's wins plus games). So one solved team settles every team on the right side of it.
+    private int topEliminated = -1;  // solved eliminated team with the largest w + r
+    private int bottomAlive = -1;    // solved non-eliminated team with the smallest w + r
+
+    // Live updates: recordResult only lowers capacities in x's network (one game node, and the
+    // team -> sink edges that depend on the winner's wins or on x's own w + r), so the flow of
+    // every team still in contention is kept and repaired rather than rebuilt.
+    // An eliminated team stays eliminated by the same R as results come in, so it is never re-solved.
+    private final Network[] network;
+    private final ArrayDeque<Network> spare = new ArrayDeque<>();  // released networks, reused by build
+
+    // Matchups that had games left when the division was read, as CSR rows: the pairs (i, j), i < j,
+    // are partner[pairStart[i] .. pairStart[i + 1]) in increasing j; a pair's position is its id.
+    // Games only run out, never appear, so the list never grows.
+    private int[] pairStart;
+    private int[] partner;
+
+    // x's flow network, kept while x is not eliminated. Vertices: source 0, one vertex per pair with
+    // games left and without x, the n - 1 other teams in a dense index that skips x, then the sink.
+    private static class Network {
+        MaxFlow flow;
+        int[] pairEdge;   // pairEdge[pair id] = source -> game edge, -1 if the pair is not in the network
+        int[] sinkEdge;   // sinkEdge[i] = team i -> sink edge
+        int x;
+        int teamBase;     // vertex of team i is teamBase + i (i < x) or teamBase + i - 1 (i > x)
+        int sink;
+        int totalGames;
+
+        int team(int i) {
+            return teamBase + (i < x ? i : i - 1);
+        }
+    }
+
     public BaseballElimination(String filename) {
         In in = new In(filename);
         n = in.readInt();
@@ -26,6 +68,10 @@ public class BaseballElimination {
         losses = new int[n];
         remaining = new int[n];
         games = new int[n][n];
+        solved = new boolean[n];
+        subset = new int[n][];
+        certificate = newCertificates(n);
+        network = new Network[n];
 
         for (int i = 0; i < n; i++) {
             teams[i] = in.readString();
@@ -37,6 +83,37 @@ public class BaseballElimination {
                 games[i][j] = in.readInt();
             }
         }
+        indexPairs();
+    }
+
+    // division from standings arrays (copied), in the same layout as the input file
+    public BaseballElimination(String[] teams, int[] wins, int[] losses, int[] remaining, int[][] games) {
+        if (teams == null || wins == null || losses == null || remaining == null || games == null)
+            throw new IllegalArgumentException("argument is null");
+        n = teams.length;
+        if (wins.length != n || losses.length != n || remaining.length != n || games.length != n)
+            throw new IllegalArgumentException("arrays differ in length");
+        this.teams = teams.clone();
+        this.wins = wins.clone();
+        this.losses = losses.clone();
+        this.remaining = remaining.clone();
+        this.games = new int[n][];
+        teamIndex = new HashMap<>();
+        for (int i = 0; i < n; i++) {
+            if (games[i] == null || games[i].length != n) throw new IllegalArgumentException("games must be n-by-n");
+            this.games[i] = games[i].clone();
+            if (teamIndex.put(teams[i], i) != null) throw new IllegalArgumentException("duplicate team: " + teams[i]);
+        }
+        solved = new boolean[n];
+        subset = new int[n][];
+        certificate = newCertificates(n);
+        network = new Network[n];
+        indexPairs();
+    }
+
+    // independent copy of the current standings (results are recomputed, not copied)
+    public BaseballElimination(BaseballElimination that) {
+        this(that.teams, that.wins, that.losses, that.remaining, that.games);
     }
 
     public int numberOfTeams() {
@@ -50,19 +127,51 @@ public class BaseballElimination {
     }
 
     public int wins(String team) {
-        return wins[teamIndex.get(team)];
+        return wins[index(team)];
     }
 
     public int losses(String team) {
-        return losses[teamIndex.get(team)];
+        return losses[index(team)];
     }
 
     public int remaining(String team) {
-        return remaining[teamIndex.get(team)];
+        return remaining[index(team)];
     }
 
     public int against(String team1, String team2) {
-        return games[teamIndex.get(team1)][teamIndex.get(team2)];
+        return games[index(team1)][index(team2)];
+    }
+
+    // record that winner beat loser in one of their remaining games
+    public void recordResult(String winner, String loser) {
+        int w = index(winner), l = index(loser);
+        if (w == l) throw new IllegalArgumentException("a team cannot play itself: " + winner);
+        if (games[w][l] == 0) throw new IllegalArgumentException("no game left between " + winner + " and " + loser);
+        wins[w]++;
+        losses[l]++;
+        remaining[w]--;
+        remaining[l]--;
+        games[w][l]--;
+        games[l][w]--;
+
+        for (int x = 0; x < n; x++) {
+            if (network[x] != null) update(network[x], x, w, l);
+        }
+        // Eliminated teams keep their certificate: R's wins plus games among R cannot drop and
+        // no team's w + r grows. The winner cannot become eliminated (every other team's
+        // R-average can only fall); everyone else still in contention has to be checked again.
+        bottomAlive = -1;
+        topEliminated = -1;
+        for (int x = 0; x < n; x++) {
+            if (!solved[x]) continue;
+            if (subset[x] != null) {
+                if (topEliminated < 0 || maxWins(x) > maxWins(topEliminated)) topEliminated = x;
+            } else if (x == w) {
+                bottomAlive = w;
+            } else {
+                solved[x] = false;
+            }
+        }
     }
 
     public boolean isEliminated(String team) {
@@ -70,65 +179,216 @@ public class BaseballElimination {
     }
 
     public Iterable<String> certificateOfElimination(String team) {
-        int x = teamIndex.get(team);
+        int x = index(team);
+        resolve(x);
+        return certificate[x];
+    }
+
+    // solve every team up front, so later queries are lookups. Teams are sorted by w + r and the
+    // boundary between eliminated and alive teams is found by binary search; every other team
+    // follows from the two teams at the boundary, so this takes O(log n) max-flows.
+    public void eliminateAll() {
+        Integer[] order = new Integer[n];
+        for (int i = 0; i < n; i++) order[i] = i;
+        Arrays.sort(order, (a, b) -> Integer.compare(maxWins(a), maxWins(b)));
+        int lo = 0, hi = n;     // order[0..lo) eliminated, order[hi..n) alive
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            resolve(order[mid]);
+            if (subset[order[mid]] != null) lo = mid + 1;
+            else hi = mid;
+        }
+        for (int i = 0; i < n; i++) resolve(i);
+    }
+
+    private int maxWins(int x) {
+        return wins[x] + remaining[x];
+    }
+
+    // compute x's result unless known, inferring it from the boundary teams when possible
+    private void resolve(int x) {
+        if (solved[x]) return;
+        int[] r = null;
+        boolean known = false;
+        if (topEliminated >= 0 && maxWins(x) <= maxWins(topEliminated)) {
+            r = reuse(subset[topEliminated], x);
+            known = r != null;
+        }
+        if (!known && bottomAlive >= 0 && maxWins(x) >= maxWins(bottomAlive)) known = true;
+        if (!known) r = solve(x);
+
+        solved[x] = true;
+        subset[x] = r;
+        if (r != null && network[x] != null) {     // final: no more updates needed
+            spare.push(network[x]);
+            network[x] = null;
+        }
+        if (r == null) {
+            if (bottomAlive < 0 || maxWins(x) < maxWins(bottomAlive)) bottomAlive = x;
+            return;
+        }
+        List<String> cert = new ArrayList<>(r.length);
+        for (int i : r) cert.add(teams[i]);
+        certificate[x] = Collections.unmodifiableList(cert);
+        if (topEliminated < 0 || maxWins(x) > maxWins(topEliminated)) topEliminated = x;
+    }
+
+    // R (without x) as a certificate for x, or null if it does not eliminate x
+    private int[] reuse(int[] r, int x) {
+        int k = 0;
+        int[] s = new int[r.length];
+        for (int i : r) if (i != x) s[k++] = i;
+        s = Arrays.copyOf(s, k);
+        return eliminates(s, x) ? s : null;
+    }
 
+    // true if the teams in r win more than (w[x] + r[x]) * |r| games in total among themselves
+    private boolean eliminates(int[] r, int x) {
+        if (r.length == 0) return false;
+        long total = 0;
+        for (int a = 0; a < r.length; a++) {
+            total += wins[r[a]];
+            for (int b = a + 1; b < r.length; b++) total += games[r[a]][r[b]];
+        }
+        return total > (long) maxWins(x) * r.length;
+    }
+
+    private int index(String team) {
+        Integer x = teamIndex.get(team);
+        if (x == null) throw new IllegalArgumentException("unknown team: " + team);
+        return x;
+    }
+
+    // certificate of x as team indices (null if x is not eliminated), from one max-flow
+    // (continuing the flow kept from x's previous solve, if any)
+    private int[] solve(int x) {
         // Trivial elimination
         for (int i = 0; i < n; i++) {
             if (wins[x] + remaining[x] < wins[i]) {
-                ArrayList<String> cert = new ArrayList<>();
-                cert.add(teams[i]);
-                return cert;
+                return new int[] { i };
+            }
+        }
+
+        Network net = network[x];
+        long flow;
+        if (net == null) {
+            net = build(x);
+            network[x] = net;
+            flow = net.flow.maxFlow(0, net.sink);
+        } else {
+            flow = net.flow.augment();
+        }
+
+        if (flow < net.totalGames) {
+            int[] cert = new int[n];
+            int k = 0;
+            for (int i = 0; i < n; i++) {
+                if (i != x && net.flow.inCut(net.team(i))) {
+                    cert[k++] = i;
+                }
             }
+            return Arrays.copyOf(cert, k);
         }
+        return null;
+    }
 
-        // Build Flow network
-        int gameVertices = n * (n - 1) / 2;
-        int V = 2 + gameVertices + n; // source + sink + games + teams
+    // source -> games -> teams -> sink network for x, sized by the matchups still to be played;
+    // the arrays of a released network are reused
+    private Network build(int x) {
+        int pairs = 0;
+        for (int i = 0; i < n; i++) {
+            if (i == x) continue;
+            for (int p = pairStart[i]; p < pairStart[i + 1]; p++) {
+                if (partner[p] != x && games[i][partner[p]] > 0) pairs++;
+            }
+        }
+        int V = 2 + pairs + (n - 1);   // source + games + teams other than x + sink
         int source = 0;
-        int sink = V - 1;
 
-        FlowNetwork network = new FlowNetwork(V);
+        Network net = spare.isEmpty() ? new Network() : spare.pop();
+        if (net.flow == null) {
+            net.flow = new MaxFlow(V);
+            net.pairEdge = new int[partner.length];
+            net.sinkEdge = new int[n];
+        } else {
+            net.flow.reset(V);
+        }
+        Arrays.fill(net.pairEdge, -1);
+        net.x = x;
+        net.teamBase = 1 + pairs;
+        net.sink = V - 1;
+        net.totalGames = 0;
+        MaxFlow flow = net.flow;
 
         int gameNode = 1;
-        int totalGames = 0;
-
         for (int i = 0; i < n; i++) {
-            for (int j = i + 1; j < n; j++) {
-                if (i == x || j == x) continue;
+            if (i == x) continue;
+            for (int p = pairStart[i]; p < pairStart[i + 1]; p++) {
+                int j = partner[p];
                 int gamesLeft = games[i][j];
-                if (gamesLeft > 0) {
-                    network.addEdge(new FlowEdge(source, gameNode, gamesLeft));
-                    network.addEdge(new FlowEdge(gameNode, gameVertices + 1 + i, Double.POSITIVE_INFINITY));
-                    network.addEdge(new FlowEdge(gameNode, gameVertices + 1 + j, Double.POSITIVE_INFINITY));
-                    totalGames += gamesLeft;
-                }
+                if (j == x || gamesLeft == 0) continue;
+                // game -> team edges carry at most gamesLeft, so that capacity acts as infinity
+                net.pairEdge[p] = flow.addEdge(source, gameNode, gamesLeft);
+                flow.addEdge(gameNode, net.team(i), gamesLeft);
+                flow.addEdge(gameNode, net.team(j), gamesLeft);
+                net.totalGames += gamesLeft;
                 gameNode++;
             }
         }
 
         for (int i = 0; i < n; i++) {
             if (i == x) continue;
-            int capacity = wins[x] + remaining[x] - wins[i];
-            if (capacity < 0) capacity = 0;
-            network.addEdge(new FlowEdge(gameVertices + 1 + i, sink, capacity));
+            net.sinkEdge[i] = flow.addEdge(net.team(i), net.sink, sinkCapacity(x, i));
         }
+        return net;
+    }
 
-        FordFulkerson ff = new FordFulkerson(network, source, sink);
+    // id of the pair (i, j), i < j, in the matchup list
+    private int pairId(int i, int j) {
+        int p = Arrays.binarySearch(partner, pairStart[i], pairStart[i + 1], j);
+        if (p < 0) throw new IllegalStateException("no matchup between teams " + i + " and " + j);
+        return p;
+    }
 
-        if (ff.value() < totalGames) {
-            ArrayList<String> cert = new ArrayList<>();
+    private void indexPairs() {
+        pairStart = new int[n + 1];
+        for (int i = 0; i < n; i++) {
+            pairStart[i + 1] = pairStart[i];
+            for (int j = i + 1; j < n; j++) if (games[i][j] > 0) pairStart[i + 1]++;
+        }
+        partner = new int[pairStart[n]];
+        for (int i = 0, p = 0; i < n; i++) {
+            for (int j = i + 1; j < n; j++) if (games[i][j] > 0) partner[p++] = j;
+        }
+    }
+
+    private int sinkCapacity(int x, int i) {
+        return Math.max(0, wins[x] + remaining[x] - wins[i]);
+    }
+
+    // bring x's network up to date after w beat l (capacities only go down)
+    private void update(Network net, int x, int w, int l) {
+        if (x == w) return;             // x's own game: nothing in x's network changes
+        if (x == l) {                   // x's w + r fell by one: every team -> sink edge shrinks
             for (int i = 0; i < n; i++) {
-                if (i != x && ff.inCut(gameVertices + 1 + i)) {
-                    cert.add(teams[i]);
-                }
+                if (i != x) net.flow.setCapacity(net.sinkEdge[i], sinkCapacity(x, i));
             }
-            return cert;
+            return;
         }
-        return null;
+        int e = net.pairEdge[pairId(Math.min(w, l), Math.max(w, l))];
+        net.flow.setCapacity(e, games[w][l]);
+        net.totalGames--;
+        net.flow.setCapacity(net.sinkEdge[w], sinkCapacity(x, w));
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static List<String>[] newCertificates(int n) {
+        return (List<String>[]) new List[n];
     }
 
     public static void main(String[] args) {
         BaseballElimination division = new BaseballElimination(args[0]);
+        division.eliminateAll();
         for (String team : division.teams()) {
             if (division.isEliminated(team)) {
                 StdOut.print(team + " is eliminated by the subset R = { ");
@@ -0,0 +1,327 @@
+import edu.princeton.cs.algs4.StdOut;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * ClinchSimulator: Monte Carlo estimates of each team's chance of being eliminated and of
+ * clinching, when the next h remaining games (all of them by default) are decided by fair coins.
+ *
+ * A trial picks h of the remaining games uniformly at random (division games games[i][j] and the
+ * games against teams outside the division alike), plays them, and classifies every team in the
+ * resulting standings:
+ *   eliminated  no completion lets it finish with at least as many wins as every other team;
+ *   clinched    no completion lets another team finish with more wins than it (ties count as first).
+ * Clinching and trivial elimination (some team already has more than w + r wins) are decided by
+ * comparing w + r values; only the teams left undecided need the max-flow test, which reuses one
+ * MaxFlow per batch. When the whole season is played (h = all) every team is decided trivially.
+ *
+ * Trials run in batches of at most BATCH on a fork-join pool (the last batch of a call is cut
+ * short, so exactly the requested number runs); batch k draws from the k-th stream split off
+ * one SplittableRandom, so the estimates depend on the seed but not on the number of threads.
+ * The trial count doubles each round until it reaches the budget or the largest standard error
+ * drops below the target; every round is reported.
+ *
+ * The magic number printed with the standings is the number of wins by the team plus losses by
+ * its strongest rival that clinch it: max(w[y] + r[y]) - w[x] over the other teams y, at least 0.
+ *
+ * Usage:
+ *   java ClinchSimulator <division-file> [-trials N] [-games h] [-threads T] [-seed S] [-error e]
+ */
+public class ClinchSimulator {
+    private static final int BATCH = 4096;
+
+    private final int n;
+    private final String[] teams;
+    private final int[] wins, losses, remaining;
+    private final int[] against;       // against[i * n + j] = division games left between i and j
+    private final int[] gameA, gameB;  // every remaining game once; gameB = -1 for an outside opponent
+    private final int horizon;
+
+    // tallies so far
+    private final long[] eliminated;
+    private final long[] clinched;
+    private long trials;
+    private long flowChecks;
+    private final SplittableRandom streams;
+
+    // simulate the next h remaining games of the division (h = -1 for all of them)
+    public ClinchSimulator(BaseballElimination division, int h, long seed) {
+        if (division == null) throw new IllegalArgumentException("division is null");
+        n = division.numberOfTeams();
+        teams = new String[n];
+        int k = 0;
+        for (String t : division.teams()) teams[k++] = t;
+        wins = new int[n];
+        losses = new int[n];
+        remaining = new int[n];
+        against = new int[n * n];
+        for (int i = 0; i < n; i++) {
+            wins[i] = division.wins(teams[i]);
+            losses[i] = division.losses(teams[i]);
+            remaining[i] = division.remaining(teams[i]);
+            for (int j = 0; j < n; j++) against[i * n + j] = division.against(teams[i], teams[j]);
+        }
+
+        // each division game appears in two teams' remaining counts, an outside game in one
+        List<int[]> schedule = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            int inside = 0;
+            for (int j = 0; j < n; j++) {
+                inside += against[i * n + j];
+                if (j > i) for (int g = against[i * n + j]; g > 0; g--) schedule.add(new int[] { i, j });
+            }
+            for (int g = remaining[i] - inside; g > 0; g--) schedule.add(new int[] { i, -1 });
+        }
+        gameA = new int[schedule.size()];
+        gameB = new int[schedule.size()];
+        for (int g = 0; g < gameA.length; g++) {
+            gameA[g] = schedule.get(g)[0];
+            gameB[g] = schedule.get(g)[1];
+        }
+        if (h < -1) throw new IllegalArgumentException("number of games must be non-negative");
+        horizon = (h == -1) ? gameA.length : Math.min(h, gameA.length);
+
+        eliminated = new long[n];
+        clinched = new long[n];
+        streams = new SplittableRandom(seed);
+    }
+
+    // run count more trials on the pool
+    public void simulate(long count, ForkJoinPool pool) {
+        if (count < 0) throw new IllegalArgumentException("count must be non-negative");
+        if (pool == null) throw new IllegalArgumentException("pool is null");
+        int k = (int) ((count + BATCH - 1) / BATCH);
+        List<Callable<long[]>> tasks = new ArrayList<>(k);
+        for (int b = 0; b < k; b++) {
+            SplittableRandom random = streams.split();   // split in order, so results ignore scheduling
+            int size = (int) Math.min(BATCH, count - (long) b * BATCH);
+            tasks.add(() -> new Batch(random, size).run());
+        }
+        for (Future<long[]> f : pool.invokeAll(tasks)) {
+            long[] tally;
+            try {
+                tally = f.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException(e.getCause());
+            }
+            for (int x = 0; x < n; x++) {
+                eliminated[x] += tally[x];
+                clinched[x] += tally[n + x];
+            }
+            flowChecks += tally[2 * n];
+        }
+        trials += count;
+    }
+
+    public long trials() {
+        return trials;
+    }
+
+    // max-flow tests run so far (the other team classifications were trivial)
+    public long flowChecks() {
+        return flowChecks;
+    }
+
+    public double eliminationProbability(String team) {
+        return fraction(eliminated[index(team)]);
+    }
+
+    public double clinchProbability(String team) {
+        return fraction(clinched[index(team)]);
+    }
+
+    // largest standard error of any estimate so far
+    public double maxStandardError() {
+        double max = 0;
+        for (int x = 0; x < n; x++) {
+            max = Math.max(max, standardError(fraction(eliminated[x])));
+            max = Math.max(max, standardError(fraction(clinched[x])));
+        }
+        return max;
+    }
+
+    // wins by team plus losses by its strongest rival that clinch it, in the current standings
+    public int magicNumber(String team) {
+        int x = index(team);
+        int best = 0;
+        for (int y = 0; y < n; y++) {
+            if (y != x) best = Math.max(best, wins[y] + remaining[y]);
+        }
+        return Math.max(0, best - wins[x]);
+    }
+
+    private double fraction(long count) {
+        return trials == 0 ? Double.NaN : (double) count / trials;
+    }
+
+    private double standardError(double p) {
+        return Math.sqrt(p * (1 - p) / trials);
+    }
+
+    private int index(String team) {
+        for (int i = 0; i < n; i++) {
+            if (teams[i].equals(team)) return i;
+        }
+        throw new IllegalArgumentException("unknown team: " + team);
+    }
+
+    // size trials (at most BATCH) with one random stream and one set of working arrays
+    private class Batch {
+        private final SplittableRandom random;
+        private final int size;
+        private final int[] w = new int[n], r = new int[n], g = new int[n * n];
+        private final int[] order = new int[gameA.length];
+        private final MaxFlow flow = new MaxFlow(2);
+        // tally[x] = eliminations, tally[n + x] = clinches, tally[2n] = flow checks
+        private final long[] tally = new long[2 * n + 1];
+
+        Batch(SplittableRandom random, int size) {
+            this.random = random;
+            this.size = size;
+            for (int k = 0; k < order.length; k++) order[k] = k;
+        }
+
+        long[] run() {
+            for (int t = 0; t < size; t++) {
+                play();
+                classify();
+            }
+            return tally;
+        }
+
+        // standings after horizon random games with random winners
+        private void play() {
+            System.arraycopy(wins, 0, w, 0, n);
+            System.arraycopy(remaining, 0, r, 0, n);
+            System.arraycopy(against, 0, g, 0, n * n);
+            for (int k = 0; k < horizon; k++) {
+                int pick = k + random.nextInt(order.length - k);
+                int game = order[pick];
+                order[pick] = order[k];
+                order[k] = game;
+                int a = gameA[game], b = gameB[game];
+                r[a]--;
+                if (b >= 0) {
+                    r[b]--;
+                    g[a * n + b]--;
+                    g[b * n + a]--;
+                }
+                if (random.nextBoolean()) w[a]++;
+                else if (b >= 0) w[b]++;
+            }
+        }
+
+        private void classify() {
+            // the two largest w + r, to settle clinching for every team at once
+            int top = -1, second = Integer.MIN_VALUE, maxWins = Integer.MIN_VALUE;
+            for (int i = 0; i < n; i++) {
+                int most = w[i] + r[i];
+                if (top < 0 || most > w[top] + r[top]) {
+                    if (top >= 0) second = w[top] + r[top];
+                    top = i;
+                } else {
+                    second = Math.max(second, most);
+                }
+                maxWins = Math.max(maxWins, w[i]);
+            }
+            for (int x = 0; x < n; x++) {
+                int rival = (x == top) ? second : w[top] + r[top];
+                if (rival <= w[x]) tally[n + x]++;                    // clinched
+                else if (w[x] + r[x] < maxWins) tally[x]++;           // trivially eliminated
+                else if (!canWin(x)) tally[x]++;
+            }
+        }
+
+        // max-flow test: can every remaining game among the others be played without any of them
+        // passing w[x] + r[x]?
+        private boolean canWin(int x) {
+            tally[2 * n]++;
+            int most = w[x] + r[x];
+            int pairs = 0;
+            for (int i = 0; i < n; i++) {
+                if (i == x) continue;
+                for (int j = i + 1; j < n; j++) {
+                    if (j != x && g[i * n + j] > 0) pairs++;
+                }
+            }
+            int V = 2 + pairs + n;      // source, games, teams (vertex of x unused), sink
+            int source = 0, sink = V - 1, teamBase = 1 + pairs;
+            flow.reset(V);
+            int games = 0, node = 1;
+            for (int i = 0; i < n; i++) {
+                if (i == x) continue;
+                for (int j = i + 1; j < n; j++) {
+                    int left = g[i * n + j];
+                    if (j == x || left == 0) continue;
+                    flow.addEdge(source, node, left);
+                    flow.addEdge(node, teamBase + i, left);
+                    flow.addEdge(node, teamBase + j, left);
+                    games += left;
+                    node++;
+                }
+                flow.addEdge(teamBase + i, sink, most - w[i]);
+            }
+            return flow.maxFlow(source, sink) == games;
+        }
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 1) {
+            System.out.println("Usage: java ClinchSimulator <division-file> [-trials N] [-games h] [-threads T] [-seed S] [-error e]");
+            return;
+        }
+        long budget = 1_000_000;
+        int h = -1;
+        int threads = Runtime.getRuntime().availableProcessors();
+        long seed = 1;
+        double target = 0;
+        for (int i = 1; i < args.length; i++) {
+            switch (args[i]) {
+                case "-trials":  budget = Long.parseLong(args[++i]); break;
+                case "-games":   h = Integer.parseInt(args[++i]); break;
+                case "-threads": threads = Integer.parseInt(args[++i]); break;
+                case "-seed":    seed = Long.parseLong(args[++i]); break;
+                case "-error":   target = Double.parseDouble(args[++i]); break;
+                default: throw new IllegalArgumentException("unknown option: " + args[i]);
+            }
+        }
+
+        BaseballElimination division = new BaseballElimination(args[0]);
+        ClinchSimulator sim = new ClinchSimulator(division, h, seed);
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        long t0 = System.nanoTime();
+        try {
+            long round = Math.min(budget, (long) BATCH * threads);
+            while (sim.trials() < budget) {
+                sim.simulate(Math.min(round, budget - sim.trials()), pool);
+                double seconds = (System.nanoTime() - t0) / 1e9;
+                StdOut.printf("%,12d trials  max std error %.5f  %5.1f%% flow checks  %,.0f trials/s%n",
+                              sim.trials(), sim.maxStandardError(),
+                              100.0 * sim.flowChecks() / ((double) sim.trials() * division.numberOfTeams()),
+                              sim.trials() / seconds);
+                if (sim.maxStandardError() < target) break;
+                round = sim.trials();    // double the total
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        StdOut.println();
+        StdOut.printf("%-16s %4s %4s %4s %6s %10s %10s%n", "team", "w", "l", "r", "magic", "P(elim)", "P(clinch)");
+        for (String team : division.teams()) {
+            StdOut.printf("%-16s %4d %4d %4d %6s %10.5f %10.5f%n", team,
+                          division.wins(team), division.losses(team), division.remaining(team),
+                          division.isEliminated(team) ? "-" : String.valueOf(sim.magicNumber(team)),
+                          sim.eliminationProbability(team), sim.clinchProbability(team));
+        }
+    }
+}
@@ -0,0 +1,219 @@
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * EliminationBatch: decides every team's elimination for many divisions and what-if scenarios
+ * on a fork-join pool, writing one JSON object per scenario (JSON Lines) as scenarios finish.
+ *
+ * Each division file is read once. Scenario 0 is the file itself; scenario s > 0 plays a random
+ * half of the remaining division games with random winners (seeded by the file and s) on a copy
+ * of the standings. Scenarios are independent, so the pool splits the scenario list recursively
+ * and each leaf runs eliminateAll() on its own BaseballElimination.
+ *
+ * Output line:
+ *   {"division":"teams4.txt","scenario":0,"teams":[{"team":"Atlanta","eliminated":false},
+ *    {"team":"Montreal","eliminated":true,"certificate":["Atlanta"]}, ...]}
+ *
+ * Usage:
+ *   java EliminationBatch [-threads N] [-scenarios K] [-seed S] [-out file] division-file-or-dir ...
+ */
+public class EliminationBatch {
+    private final List<String> names = new ArrayList<>();
+    private final List<BaseballElimination> divisions = new ArrayList<>();
+    private final int scenarios;
+    private final long seed;
+
+    // K scenarios per division (K >= 1; scenario 0 is the division as read)
+    public EliminationBatch(List<String> files, int scenarios, long seed) {
+        if (files == null) throw new IllegalArgumentException("files is null");
+        if (scenarios < 1) throw new IllegalArgumentException("scenarios must be at least 1");
+        this.scenarios = scenarios;
+        this.seed = seed;
+        for (String f : files) {
+            names.add(new File(f).getName());
+            divisions.add(new BaseballElimination(f));
+        }
+    }
+
+    // number of (division, scenario) tasks
+    public int size() {
+        return divisions.size() * scenarios;
+    }
+
+    // evaluate every task on the pool, writing one line per task to out (in completion order);
+    // returns the number of teams evaluated
+    public long run(ForkJoinPool pool, Writer out) {
+        if (pool == null || out == null) throw new IllegalArgumentException("argument is null");
+        AtomicLong teams = new AtomicLong();
+        if (size() == 0) return 0;
+        pool.invoke(new Batch(0, size(), out, teams));
+        return teams.get();
+    }
+
+    // tasks [lo, hi), split in halves down to single scenarios
+    private class Batch extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int lo, hi;
+        private final Writer out;
+        private final AtomicLong teams;
+
+        Batch(int lo, int hi, Writer out, AtomicLong teams) {
+            this.lo = lo;
+            this.hi = hi;
+            this.out = out;
+            this.teams = teams;
+        }
+
+        @Override
+        protected void compute() {
+            if (hi <= lo) return;
+            if (hi - lo == 1) {
+                String line = evaluate(lo / scenarios, lo % scenarios, teams);
+                try {
+                    synchronized (out) {
+                        out.write(line);
+                        out.write('\n');
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                return;
+            }
+            int mid = (lo + hi) >>> 1;
+            invokeAll(new Batch(lo, mid, out, teams), new Batch(mid, hi, out, teams));
+        }
+    }
+
+    // JSON line with the result of one scenario of division d
+    private String evaluate(int d, int scenario, AtomicLong count) {
+        BaseballElimination division = new BaseballElimination(divisions.get(d));
+        if (scenario > 0) playHalf(division, new SplittableRandom(seed * 31 + d * 1000003L + scenario));
+        division.eliminateAll();
+
+        StringBuilder sb = new StringBuilder();
+        sb.append("{\"division\":").append(quote(names.get(d)));
+        sb.append(",\"scenario\":").append(scenario).append(",\"teams\":[");
+        boolean first = true;
+        for (String team : division.teams()) {
+            if (!first) sb.append(',');
+            first = false;
+            Iterable<String> cert = division.certificateOfElimination(team);
+            sb.append("{\"team\":").append(quote(team)).append(",\"eliminated\":").append(cert != null);
+            if (cert != null) {
+                sb.append(",\"certificate\":[");
+                boolean firstTeam = true;
+                for (String t : cert) {
+                    if (!firstTeam) sb.append(',');
+                    firstTeam = false;
+                    sb.append(quote(t));
+                }
+                sb.append(']');
+            }
+            sb.append('}');
+        }
+        count.addAndGet(division.numberOfTeams());
+        return sb.append("]}").toString();
+    }
+
+    // record random results for a random half of the remaining division games
+    private static void playHalf(BaseballElimination division, SplittableRandom random) {
+        String[] teams = new String[division.numberOfTeams()];
+        int n = 0;
+        for (String t : division.teams()) teams[n++] = t;
+        List<int[]> schedule = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            for (int j = i + 1; j < n; j++) {
+                for (int g = division.against(teams[i], teams[j]); g > 0; g--) schedule.add(new int[] { i, j });
+            }
+        }
+        for (int k = schedule.size() - 1; k > 0; k--) {
+            int r = random.nextInt(k + 1);
+            int[] t = schedule.get(k);
+            schedule.set(k, schedule.get(r));
+            schedule.set(r, t);
+        }
+        for (int k = 0; k < schedule.size() / 2; k++) {
+            int[] game = schedule.get(k);
+            int w = random.nextBoolean() ? game[0] : game[1];
+            division.recordResult(teams[w], teams[game[0] + game[1] - w]);
+        }
+    }
+
+    private static String quote(String s) {
+        StringBuilder sb = new StringBuilder("\"");
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '"' || c == '\\') sb.append('\\').append(c);
+            else if (c < 0x20) sb.append(String.format("\\u%04x", (int) c));
+            else sb.append(c);
+        }
+        return sb.append('"').toString();
+    }
+
+    public static void main(String[] args) throws IOException {
+        int threads = Runtime.getRuntime().availableProcessors();
+        int scenarios = 1;
+        long seed = 1;
+        String outFile = null;
+        List<String> files = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "-threads":   threads = Integer.parseInt(args[++i]); break;
+                case "-scenarios": scenarios = Integer.parseInt(args[++i]); break;
+                case "-seed":      seed = Long.parseLong(args[++i]); break;
+                case "-out":       outFile = args[++i]; break;
+                default:
+                    File f = new File(args[i]);
+                    if (f.isDirectory()) {
+                        File[] list = f.listFiles((dir, name) -> name.endsWith(".txt"));
+                        if (list == null) continue;
+                        Arrays.sort(list);
+                        for (File g : list) files.add(g.getPath());
+                    } else {
+                        files.add(args[i]);
+                    }
+            }
+        }
+        if (files.isEmpty()) {
+            System.out.println("Usage: java EliminationBatch [-threads N] [-scenarios K] [-seed S] [-out file] division-file-or-dir ...");
+            return;
+        }
+
+        long t0 = System.nanoTime();
+        EliminationBatch batch = new EliminationBatch(files, scenarios, seed);
+        long t1 = System.nanoTime();
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        // a plain Writer, so write errors surface (a PrintWriter would swallow them)
+        Writer out = (outFile == null)
+                     ? new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8))
+                     : Files.newBufferedWriter(Paths.get(outFile), StandardCharsets.UTF_8);
+        long teams;
+        try {
+            teams = batch.run(pool, out);
+            out.flush();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            pool.shutdown();
+            if (outFile != null) out.close();   // flush System.out, but leave it open
+        }
+        double seconds = (System.nanoTime() - t1) / 1e9;
+        System.err.printf("%d divisions read in %.1f ms; %d scenarios (%d teams) on %d threads in %.2f s: %.0f scenarios/s%n",
+                          files.size(), (t1 - t0) / 1e6, batch.size(), teams, threads, seconds, batch.size() / seconds);
+    }
+}
@@ -0,0 +1,290 @@
+import java.util.Arrays;
+
+/**
+ * MaxFlow: integer-capacity maximum flow by Dinic's algorithm, stored in primitive arrays.
+ *
+ * Edges live in parallel int arrays as pairs (e, e ^ 1) of an edge and its reverse; cap[e] is the
+ * residual capacity, so no FlowEdge objects and no doubles are allocated. Each phase builds BFS
+ * levels from the source and sends a blocking flow along level-increasing edges with an explicit
+ * path stack and per-vertex current-arc pointers. On the source -> games -> teams -> sink networks
+ * of BaseballElimination the level graph is shallow and a handful of phases suffice.
+ *
+ * After maxFlow(s, t), inCut(v) tells whether v is on the source side of a minimum cut
+ * (reachable from s in the residual network).
+ *
+ * Warm start: setCapacity(e, c) may lower a capacity below the flow on e; the excess is cancelled
+ * along flow-carrying paths from s through e to t (or around a flow cycle through e), leaving a
+ * feasible flow, and augment() then grows it back to a maximum flow. When only a few capacities
+ * change by a few units, this costs a few BFS phases instead of a full solve.
+ */
+public class MaxFlow {
+    private static final Metrics.Histogram PATHS = Metrics.histogram("maxflow.augmentingPaths");
+    private static final Metrics.Histogram PHASES = Metrics.histogram("maxflow.phases");
+
+    private int V;
+    private int[] head;           // head[v] = first edge out of v, -1 if none
+    private int[] next;           // next[e] = next edge out of the same vertex
+    private int[] to;             // to[e] = head vertex of e
+    private int[] cap;            // residual capacity of e
+    private int[] original;       // capacity e was added with (0 for reverse edges)
+    private int E;                // number of edge slots used (twice the edges added)
+
+    private int[] level;
+    private int[] arc;            // current arc of each vertex in this phase
+    private int[] queue;
+    private int[] path;           // edges of the path being extended
+    private int[] parent;         // edge that reached each vertex in a cancelling search
+    private long value;
+    private boolean solved;
+    private int source = -1, sink = -1;
+    private int paths;            // augmenting paths in the current augment() (with metrics on)
+
+    public MaxFlow(int V) {
+        next = new int[16];
+        to = new int[16];
+        cap = new int[16];
+        original = new int[16];
+        path = new int[16];
+        head = new int[0];
+        reset(V);
+    }
+
+    // remove all edges and resize to V vertices, keeping the arrays (they only grow)
+    public void reset(int V) {
+        if (V < 0) throw new IllegalArgumentException("number of vertices must be non-negative");
+        this.V = V;
+        if (head.length < V) {
+            head = new int[V];
+            level = new int[V];
+            arc = new int[V];
+            queue = new int[V];
+            parent = new int[V];
+        }
+        Arrays.fill(head, 0, V, -1);
+        E = 0;
+        value = 0;
+        solved = false;
+        source = -1;
+        sink = -1;
+    }
+
+    public int V() {
+        return V;
+    }
+
+    // add edge v->w with the given capacity; returns its id
+    public int addEdge(int v, int w, int capacity) {
+        validate(v);
+        validate(w);
+        if (capacity < 0) throw new IllegalArgumentException("capacity must be non-negative");
+        if (E + 2 > to.length) {
+            int size = 2 * to.length;
+            next = Arrays.copyOf(next, size);
+            to = Arrays.copyOf(to, size);
+            cap = Arrays.copyOf(cap, size);
+            original = Arrays.copyOf(original, size);
+        }
+        int e = E;
+        link(e, v, w, capacity);
+        link(e + 1, w, v, 0);
+        original[e] = capacity;
+        E += 2;
+        solved = false;
+        return e;
+    }
+
+    // flow on edge e
+    public int flow(int e) {
+        validateEdge(e);
+        return original[e] - cap[e];
+    }
+
+    public int capacity(int e) {
+        validateEdge(e);
+        return original[e];
+    }
+
+    // value of a maximum flow from s to t, starting from zero flow
+    public long maxFlow(int s, int t) {
+        validate(s);
+        validate(t);
+        if (s == t) throw new IllegalArgumentException("source equals sink");
+        source = s;
+        sink = t;
+        value = 0;
+        for (int e = 0; e < E; e++) cap[e] = original[e];
+        return augment();
+    }
+
+    // grow the current flow (kept since the last maxFlow, and any capacity changes) to a maximum flow
+    public long augment() {
+        if (source < 0) throw new IllegalStateException("maxFlow has not been run");
+        int phases = 0;
+        paths = 0;
+        while (bfs(source, sink)) {
+            System.arraycopy(head, 0, arc, 0, V);
+            value += blockingFlow(source, sink);
+            phases++;
+        }
+        if (Metrics.ENABLED) {
+            PATHS.record(paths);
+            PHASES.record(phases);
+        }
+        solved = true;   // the last BFS marked exactly the vertices reachable from s
+        return value;
+    }
+
+    // set the capacity of edge e, cancelling flow through e above the new capacity
+    public void setCapacity(int e, int capacity) {
+        validateEdge(e);
+        if (capacity < 0) throw new IllegalArgumentException("capacity must be non-negative");
+        int excess = original[e] - cap[e] - capacity;
+        while (excess > 0) excess -= cancel(e, excess);
+        cap[e] += capacity - original[e];
+        original[e] = capacity;
+        solved = false;
+    }
+
+    public long value() {
+        if (!solved) throw new IllegalStateException("maxFlow has not been run");
+        return value;
+    }
+
+    // is v reachable from s in the residual network?
+    public boolean inCut(int v) {
+        validate(v);
+        if (!solved) throw new IllegalStateException("maxFlow has not been run");
+        return level[v] >= 0;
+    }
+
+    // ---- Private helpers ----
+
+    private void link(int e, int v, int w, int capacity) {
+        to[e] = w;
+        cap[e] = capacity;
+        next[e] = head[v];
+        head[v] = e;
+    }
+
+    // level[v] = BFS distance from s over residual edges (-1 if unreachable); true if t is reached
+    private boolean bfs(int s, int t) {
+        Arrays.fill(level, 0, V, -1);
+        int first = 0, last = 0;
+        queue[last++] = s;
+        level[s] = 0;
+        while (first < last) {
+            int v = queue[first++];
+            for (int e = head[v]; e >= 0; e = next[e]) {
+                int w = to[e];
+                if (cap[e] > 0 && level[w] < 0) {
+                    level[w] = level[v] + 1;
+                    queue[last++] = w;
+                }
+            }
+        }
+        return level[t] >= 0;
+    }
+
+    // saturate every s-t path in the level graph
+    private long blockingFlow(int s, int t) {
+        long total = 0;
+        int top = 0;
+        int v = s;
+        while (true) {
+            if (v == t) {
+                int f = Integer.MAX_VALUE;
+                for (int k = 0; k < top; k++) f = Math.min(f, cap[path[k]]);
+                int cut = -1;
+                for (int k = 0; k < top; k++) {
+                    int e = path[k];
+                    cap[e] -= f;
+                    cap[e ^ 1] += f;
+                    if (cap[e] == 0 && cut < 0) cut = k;
+                }
+                total += f;
+                if (Metrics.ENABLED) paths++;
+                top = cut;            // retreat to the tail of the first saturated edge
+                v = (top == 0) ? s : to[path[top - 1]];
+                continue;
+            }
+            int e = arc[v];
+            while (e >= 0 && (cap[e] == 0 || level[to[e]] != level[v] + 1)) e = next[e];
+            arc[v] = e;
+            if (e >= 0) {
+                if (top == path.length) path = Arrays.copyOf(path, 2 * top);
+                path[top++] = e;
+                v = to[e];
+            } else {
+                if (top == 0) return total;
+                level[v] = -2;        // dead end for the rest of this phase
+                v = to[path[--top] ^ 1];
+                arc[v] = next[arc[v]];
+            }
+        }
+    }
+
+    // cancel up to limit units of flow on a flow-carrying path s ~> tail(e) -> head(e) ~> t,
+    // or on a flow cycle through e; returns the units cancelled
+    private int cancel(int e, int limit) {
+        if (path.length < 2 * V + 1) path = Arrays.copyOf(path, 2 * V + 1);
+        int tail = to[e ^ 1], tip = to[e];
+        int top = 0;
+        path[top++] = e;
+        int from = trace(tail, true, source, tip);
+        if (from < 0) throw new IllegalStateException("flow into edge " + e + " does not come from the source");
+        for (int v = from; v != tail; v = to[parent[v]]) path[top++] = parent[v];
+        boolean cycle = (from != source);
+        if (!cycle) {
+            int into = trace(tip, false, sink, -1);
+            if (into < 0) throw new IllegalStateException("flow out of edge " + e + " does not reach the sink");
+            for (int v = into; v != tip; v = to[parent[v] ^ 1]) path[top++] = parent[v];
+        }
+        int f = limit;
+        for (int k = 0; k < top; k++) f = Math.min(f, flowOn(path[k]));
+        for (int k = 0; k < top; k++) push(path[k], -f);
+        if (!cycle) value -= f;
+        return f;
+    }
+
+    private int flowOn(int e) {
+        return original[e] - cap[e];
+    }
+
+    private void push(int e, int f) {
+        cap[e] -= f;
+        cap[e ^ 1] += f;
+    }
+
+    // BFS from start along edges carrying flow (against their direction if backward) until target
+    // or alt is reached; parent[v] = flow edge used to reach v; returns the vertex reached, or -1
+    private int trace(int start, boolean backward, int target, int alt) {
+        if (start == target) return start;
+        Arrays.fill(level, 0, V, -1);
+        int first = 0, last = 0;
+        queue[last++] = start;
+        level[start] = 0;
+        while (first < last) {
+            int v = queue[first++];
+            for (int g = head[v]; g >= 0; g = next[g]) {
+                // backward: odd g = reverse of the edge g ^ 1 into v; forward: even g out of v
+                int flowEdge = backward ? (g ^ 1) : g;
+                if ((g & 1) != (backward ? 1 : 0) || flowOn(flowEdge) <= 0) continue;
+                int w = to[g];
+                if (level[w] >= 0) continue;
+                level[w] = 0;
+                parent[w] = flowEdge;
+                if (w == target || w == alt) return w;
+                queue[last++] = w;
+            }
+        }
+        return -1;
+    }
+
+    private void validateEdge(int e) {
+        if (e < 0 || e >= E || (e & 1) != 0) throw new IllegalArgumentException("invalid edge id: " + e);
+    }
+
+    private void validate(int v) {
+        if (v < 0 || v >= V) throw new IllegalArgumentException("vertex " + v + " is not between 0 and " + (V - 1));
+    }
+}
@@ -0,0 +1,86 @@
+import edu.princeton.cs.algs4.StdOut;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * SeasonReplay: plays out the remaining games of a division in random order, feeding each result
+ * to one live BaseballElimination (recordResult + eliminateAll) and reporting when teams are
+ * eliminated and the per-update latency. For comparison every update is also solved from scratch
+ * on a fresh BaseballElimination, whose statuses must agree with the live ones.
+ *
+ * Usage:
+ *   java SeasonReplay <division-file> [seed]
+ */
+public class SeasonReplay {
+    public static void main(String[] args) {
+        if (args.length < 1) {
+            System.out.println("Usage: java SeasonReplay <division-file> [seed]");
+            return;
+        }
+        BaseballElimination live = new BaseballElimination(args[0]);
+        Random random = new Random(args.length > 1 ? Long.parseLong(args[1]) : 1);
+        String[] teams = new String[live.numberOfTeams()];
+        int n = 0;
+        for (String t : live.teams()) teams[n++] = t;
+
+        // remaining games within the division, one entry per game, in random order
+        List<int[]> schedule = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            for (int j = i + 1; j < n; j++) {
+                for (int g = live.against(teams[i], teams[j]); g > 0; g--) schedule.add(new int[] { i, j });
+            }
+        }
+        Collections.shuffle(schedule, random);
+
+        live.eliminateAll();
+        boolean[] out = new boolean[n];
+        long[] warm = new long[schedule.size()];
+        long[] cold = new long[schedule.size()];
+        for (int k = 0; k < schedule.size(); k++) {
+            int[] game = schedule.get(k);
+            int w = random.nextBoolean() ? game[0] : game[1];
+            int l = game[0] + game[1] - w;
+
+            long t0 = System.nanoTime();
+            live.recordResult(teams[w], teams[l]);
+            live.eliminateAll();
+            warm[k] = System.nanoTime() - t0;
+
+            long t1 = System.nanoTime();
+            BaseballElimination fresh = new BaseballElimination(live);
+            fresh.eliminateAll();
+            cold[k] = System.nanoTime() - t1;
+
+            for (int x = 0; x < n; x++) {
+                boolean eliminated = live.isEliminated(teams[x]);
+                if (eliminated != fresh.isEliminated(teams[x]))
+                    throw new IllegalStateException("live and fresh standings disagree on " + teams[x]);
+                if (eliminated && !out[x]) {
+                    out[x] = true;
+                    StdOut.print("game " + (k + 1) + " (" + teams[w] + " beat " + teams[l] + "): "
+                                 + teams[x] + " eliminated by { ");
+                    for (String t : live.certificateOfElimination(teams[x])) StdOut.print(t + " ");
+                    StdOut.println("}");
+                }
+            }
+        }
+        StdOut.println(schedule.size() + " results replayed");
+        report("live update", warm);
+        report("fresh solve", cold);
+    }
+
+    private static void report(String label, long[] nanos) {
+        if (nanos.length == 0) return;
+        long[] a = nanos.clone();
+        Arrays.sort(a);
+        long total = 0;
+        for (long t : a) total += t;
+        StdOut.printf("%-12s mean %8.1f us  p50 %8.1f us  p99 %8.1f us  max %8.1f us%n", label,
+                      total / 1e3 / a.length, a[a.length / 2] / 1e3,
+                      a[Math.min(a.length - 1, (int) (a.length * 0.99))] / 1e3, a[a.length - 1] / 1e3);
+    }
+}
@@ -0,0 +1,172 @@
+import edu.princeton.cs.algs4.Digraph;
+import edu.princeton.cs.algs4.Picture;
+
+import java.awt.Color;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.TreeSet;
+
+/**
+ * BenchInputs: deterministic input generators for the benchmarks. Every generator takes a size and
+ * a seed and returns the same input for the same arguments, so a sweep over sizes can be rerun
+ * against a saved baseline and compared point by point.
+ */
+public class BenchInputs {
+    // English letter frequencies (per 1000), used for dictionaries, boards and text
+    private static final int[] LETTER_WEIGHT = {
+        82, 15, 28, 43, 127, 22, 20, 61, 70, 2, 8, 40, 24, 67, 75, 19, 1, 60, 63, 91, 28, 10, 24, 2, 20, 1
+    };
+
+    private BenchInputs() { }
+
+    // rooted DAG on V vertices shaped like WordNet: vertex 0 is the root, every other vertex v has a
+    // hypernym in [v / 2, v), and one in ten a second one, so depths grow like lg V
+    public static Digraph rootedDag(int V, long seed) {
+        if (V < 1) throw new IllegalArgumentException("V must be positive");
+        Random random = new Random(seed);
+        Digraph G = new Digraph(V);
+        for (int v = 1; v < V; v++) {
+            int w = v / 2 + random.nextInt(v - v / 2);
+            G.addEdge(v, w);
+            if (random.nextInt(10) == 0) {
+                int u = random.nextInt(v);
+                if (u != w) G.addEdge(v, u);
+            }
+        }
+        return G;
+    }
+
+    // count (v, w) vertex pairs, as pairs[2k], pairs[2k + 1]
+    public static int[] vertexPairs(int V, int count, long seed) {
+        Random random = new Random(seed);
+        int[] pairs = new int[2 * count];
+        for (int k = 0; k < pairs.length; k++) pairs[k] = random.nextInt(V);
+        return pairs;
+    }
+
+    // number of synsets named by a hypernyms file (one more than its largest synset id)
+    public static int synsetCount(Path hypernyms) throws IOException {
+        int max = -1;
+        for (String line : Files.readAllLines(hypernyms, StandardCharsets.UTF_8)) {
+            for (String f : line.split(",")) {
+                if (!f.isEmpty()) max = Math.max(max, Integer.parseInt(f));
+            }
+        }
+        return max + 1;
+    }
+
+    // synsets file for ids 0..V-1, where synset id has the nouns "n<id>" and, for one id in four,
+    // "s<id mod 1000>" shared with other synsets
+    public static Path synsetsFile(int V) throws IOException {
+        Path file = Files.createTempFile("synsets", ".txt");
+        file.toFile().deleteOnExit();
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8))) {
+            for (int id = 0; id < V; id++) {
+                out.print(id + ",n" + id);
+                if (id % 4 == 0) out.print(" s" + (id % 1000));
+                out.println(",synthetic synset " + id);
+            }
+        }
+        return file;
+    }
+
+    // width-by-height picture of smooth gradients with noise, so seams have something to follow
+    public static Picture picture(int width, int height, long seed) {
+        Random random = new Random(seed);
+        Picture picture = new Picture(width, height);
+        for (int col = 0; col < width; col++) {
+            for (int row = 0; row < height; row++) {
+                int r = (col * 255 / width + random.nextInt(32)) & 0xFF;
+                int g = (row * 255 / height + random.nextInt(32)) & 0xFF;
+                int b = ((col + row) % 64 * 4 + random.nextInt(16)) & 0xFF;
+                picture.set(col, row, new Color(r, g, b));
+            }
+        }
+        return picture;
+    }
+
+    // n bytes of text: words from a Zipf-like vocabulary of 2000 letter strings, separated by spaces
+    public static byte[] text(int n, long seed) {
+        Random random = new Random(seed);
+        byte[][] vocabulary = new byte[2000][];
+        for (int k = 0; k < vocabulary.length; k++) {
+            vocabulary[k] = word(random, 2 + random.nextInt(8)).toLowerCase().getBytes(StandardCharsets.US_ASCII);
+        }
+        byte[] a = new byte[n];
+        int i = 0;
+        while (i < n) {
+            // rank ~ 1 / u favours the first words, as in natural text
+            int rank = (int) Math.min(vocabulary.length - 1, 1 / (random.nextDouble() + 1e-3) - 1);
+            for (byte c : vocabulary[rank]) {
+                if (i == n) break;
+                a[i++] = c;
+            }
+            if (i < n) a[i++] = ' ';
+        }
+        return a;
+    }
+
+    // count distinct uppercase words of 3 to 10 letters, letters drawn by English frequency
+    public static String[] dictionary(int count, long seed) {
+        Random random = new Random(seed);
+        TreeSet<String> words = new TreeSet<>();
+        while (words.size() < count) words.add(word(random, 3 + random.nextInt(8)));
+        return words.toArray(new String[0]);
+    }
+
+    // count rows-by-cols boards with letters drawn by English frequency
+    public static BoggleBoard[] boards(int count, int rows, int cols, long seed) {
+        Random random = new Random(seed);
+        BoggleBoard[] boards = new BoggleBoard[count];
+        for (int k = 0; k < count; k++) {
+            char[][] a = new char[rows][cols];
+            for (char[] row : a)
+                for (int j = 0; j < cols; j++) row[j] = letter(random);
+            boards[k] = new BoggleBoard(a);
+        }
+        return boards;
+    }
+
+    // division of n teams near the end of a season: every pair still meets 0 to 3 times, some
+    // games are left against outside teams, and the standings are close enough that most teams
+    // need the max-flow test
+    public static BaseballElimination division(int n, long seed) {
+        Random random = new Random(seed);
+        String[] teams = new String[n];
+        int[] wins = new int[n], losses = new int[n], remaining = new int[n];
+        int[][] games = new int[n][n];
+        for (int i = 0; i < n; i++) {
+            teams[i] = "Team" + i;
+            for (int j = i + 1; j < n; j++) {
+                games[i][j] = games[j][i] = random.nextInt(4);
+            }
+        }
+        for (int i = 0; i < n; i++) {
+            int left = random.nextInt(3);
+            for (int j = 0; j < n; j++) left += games[i][j];
+            remaining[i] = left;
+            wins[i] = 60 + random.nextInt(n + 10);
+            losses[i] = 120 - wins[i];
+        }
+        return new BaseballElimination(teams, wins, losses, remaining, games);
+    }
+
+    private static String word(Random random, int length) {
+        StringBuilder sb = new StringBuilder(length);
+        for (int k = 0; k < length; k++) sb.append(letter(random));
+        return sb.toString();
+    }
+
+    private static char letter(Random random) {
+        int r = random.nextInt(1000);
+        for (int c = 0; c < 26; c++) {
+            r -= LETTER_WEIGHT[c];
+            if (r < 0) return (char) ('A' + c);
+        }
+        return 'E';
+    }
+}
@@ -0,0 +1,150 @@
+import bench.Engines;
+import edu.princeton.cs.algs4.Digraph;
+import edu.princeton.cs.algs4.In;
+import edu.princeton.cs.algs4.Picture;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+
+/**
+ * EngineWorkloads: the Engines implementation used by the JMH benchmarks in package bench.
+ *
+ * Each method builds its inputs with BenchInputs (so it runs in the benchmark's @Setup) and returns
+ * the measured operation as a lambda over them. Round trips are checked once here, before any
+ * timing, so a broken codec fails the run instead of producing a fast number.
+ */
+public class EngineWorkloads implements Engines {
+    private final File root = new File(System.getProperty("bench.root", "."));
+
+    public Workload sapLength(String graph, int queries) {
+        Digraph G = graph.equals("hypernyms") ? hypernymDigraph() : BenchInputs.rootedDag(Integer.parseInt(graph), SEED);
+        SAP sap = new SAP(G);
+        int[] pairs = BenchInputs.vertexPairs(G.V(), queries, SEED);
+        return () -> {
+            int sum = 0;
+            for (int k = 0; k < pairs.length; k += 2) sum += sap.length(pairs[k], pairs[k + 1]);
+            return sum;
+        };
+    }
+
+    public Workload wordNetDistance(int queries) {
+        File hypernyms = dataFile("WordNet", "hypernyms.txt");
+        WordNet wordnet;
+        int V;
+        try {
+            V = BenchInputs.synsetCount(hypernyms.toPath());
+            wordnet = new WordNet(BenchInputs.synsetsFile(V).toString(), hypernyms.getPath());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        int[] pairs = BenchInputs.vertexPairs(V, queries, SEED);
+        String[] nouns = new String[pairs.length];
+        for (int k = 0; k < pairs.length; k++) {
+            // "s<i>" nouns name several synsets, so some queries take the set-to-set path
+            nouns[k] = (k % 4 == 0) ? "s" + (pairs[k] / 4 * 4 % 1000) : "n" + pairs[k];
+        }
+        return () -> {
+            int sum = 0;
+            for (int k = 0; k < nouns.length; k += 2) sum += wordnet.distance(nouns[k], nouns[k + 1]);
+            return sum;
+        };
+    }
+
+    public Workload findVerticalSeam(int width, int height) {
+        SeamCarver carver = new SeamCarver(BenchInputs.picture(width, height, SEED));
+        return carver::findVerticalSeam;
+    }
+
+    public Workload removeVerticalSeams(int width, int height, int seams) {
+        Picture picture = BenchInputs.picture(width, height, SEED);
+        // a fresh carver each call, so every call removes seams from the same picture
+        return () -> {
+            SeamCarver sc = new SeamCarver(picture);
+            for (int k = 0; k < seams; k++) sc.removeVerticalSeam(sc.findVerticalSeam());
+            return sc.width();
+        };
+    }
+
+    public Workload circularSuffixArray(int n) {
+        byte[] text = BenchInputs.text(n, SEED);
+        return () -> new CircularSuffixArray(text).index(0);
+    }
+
+    public Workload burrowsWheelerRoundTrip(int n) {
+        byte[] text = BenchInputs.text(n, SEED);
+        byte[] last = new byte[n], back = new byte[n];
+        Workload roundTrip = () -> {
+            int first = BurrowsWheeler.transform(text, last);
+            BurrowsWheeler.inverseTransform(first, last, back);
+            return back;
+        };
+        roundTrip.run();
+        if (!Arrays.equals(text, back)) throw new IllegalStateException("BWT round trip failed");
+        return roundTrip;
+    }
+
+    public Workload moveToFrontRoundTrip(int n) {
+        byte[] text = BenchInputs.text(n, SEED);
+        byte[] last = new byte[n], mtf = new byte[n], back = new byte[n];
+        BurrowsWheeler.transform(text, last);
+        Workload roundTrip = () -> {
+            MoveToFront.encode(last, mtf);
+            MoveToFront.decode(mtf, back);
+            return back;
+        };
+        roundTrip.run();
+        if (!Arrays.equals(last, back)) throw new IllegalStateException("MTF round trip failed");
+        return roundTrip;
+    }
+
+    public Workload boggle(String dictionary, int side) {
+        String[] words = dictionary.isEmpty() ? BenchInputs.dictionary(100_000, SEED) : new In(dictionary).readAllStrings();
+        for (int k = 0; k < words.length; k++) words[k] = words[k].toUpperCase();
+        BoggleSolver solver = new BoggleSolver(words);
+        BoggleBoard[] boards = BenchInputs.boards(64, side, side, SEED + side);
+        int[] next = new int[1];
+        return () -> {
+            BoggleBoard board = boards[next[0]];
+            next[0] = (next[0] + 1) % boards.length;
+            return solver.getAllValidWords(board);
+        };
+    }
+
+    public Workload eliminateAll(String division) {
+        BaseballElimination teams = division.endsWith(".txt")
+                                    ? new BaseballElimination(dataFile("baseball", division).getPath())
+                                    : BenchInputs.division(Integer.parseInt(division), SEED + Integer.parseInt(division));
+        String first = teams.teams().iterator().next();
+        // a fresh copy per call, so no cached results carry over
+        return () -> {
+            BaseballElimination copy = new BaseballElimination(teams);
+            copy.eliminateAll();
+            return copy.isEliminated(first);
+        };
+    }
+
+    private File dataFile(String module, String name) {
+        File file = new File(new File(new File(root, module), "src"), name);
+        if (!file.exists()) throw new IllegalArgumentException(file + " not found (set -Dbench.root to the repository root)");
+        return file;
+    }
+
+    private Digraph hypernymDigraph() {
+        File file = dataFile("WordNet", "hypernyms.txt");
+        int V;
+        try {
+            V = BenchInputs.synsetCount(file.toPath());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        Digraph G = new Digraph(V);
+        In in = new In(file);
+        while (in.hasNextLine()) {
+            String[] f = in.readLine().split(",");
+            for (int i = 1; i < f.length; i++) G.addEdge(Integer.parseInt(f[0]), Integer.parseInt(f[i]));
+        }
+        return G;
+    }
+}
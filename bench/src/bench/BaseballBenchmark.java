@@ -0,0 +1,42 @@
+package bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BaseballBenchmark: BaseballElimination.eliminateAll on a fresh copy of the division, in us per
+ * division, on the bundled team files and on generated divisions of 30 to 300 teams.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class BaseballBenchmark {
+    @Param({ "teams4.txt", "teams5.txt", "teams12.txt", "30", "100", "300" })
+    public String division;
+
+    private Engines.Workload eliminate;
+
+    @Setup
+    public void setup() {
+        eliminate = Engines.load().eliminateAll(division);
+    }
+
+    @Benchmark
+    public Object eliminateAll() {
+        return eliminate.run();
+    }
+}
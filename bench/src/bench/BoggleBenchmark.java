@@ -0,0 +1,45 @@
+package bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BoggleBenchmark: BoggleSolver.getAllValidWords, in us per board, cycling through 64 generated
+ * boards per size. The dictionary is generated unless -p dictionary=<word list> is given.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class BoggleBenchmark {
+    @Param({ "4", "8", "16", "32" })
+    public int side;
+
+    @Param({ "" })
+    public String dictionary;
+
+    private Engines.Workload solve;
+
+    @Setup
+    public void setup() {
+        solve = Engines.load().boggle(dictionary, side);
+    }
+
+    @Benchmark
+    public Object getAllValidWords() {
+        return solve.run();
+    }
+}
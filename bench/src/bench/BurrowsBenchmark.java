@@ -0,0 +1,57 @@
+package bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BurrowsBenchmark: CircularSuffixArray construction and the BWT and MTF round trips, in us per
+ * call on n bytes of generated text (divide by n for the cost per byte).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class BurrowsBenchmark {
+    @Param({ "65536", "1048576", "8388608" })
+    public int n;
+
+    private Engines.Workload suffixArray;
+    private Engines.Workload burrowsWheeler;
+    private Engines.Workload moveToFront;
+
+    @Setup
+    public void setup() {
+        Engines engines = Engines.load();
+        suffixArray = engines.circularSuffixArray(n);
+        burrowsWheeler = engines.burrowsWheelerRoundTrip(n);
+        moveToFront = engines.moveToFrontRoundTrip(n);
+    }
+
+    @Benchmark
+    public Object circularSuffixArray() {
+        return suffixArray.run();
+    }
+
+    @Benchmark
+    public Object burrowsWheelerRoundTrip() {
+        return burrowsWheeler.run();
+    }
+
+    @Benchmark
+    public Object moveToFrontRoundTrip() {
+        return moveToFront.run();
+    }
+}
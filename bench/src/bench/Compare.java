@@ -0,0 +1,115 @@
+package bench;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compare: compares a JMH run with a saved baseline, both written with -rf csv (the jmh task does
+ * this for build/results/jmh/results.csv).
+ *
+ * For every benchmark and parameter set of the current run it prints both scores with their 99.9%
+ * error and the speedup over the baseline (above 1 is faster, for time and throughput modes alike);
+ * a change smaller than the two errors added together is marked "~", as noise.
+ *
+ * Usage:
+ *   java -cp bench/build/libs/benchmarks.jar bench.Compare baseline.csv results.csv
+ */
+public final class Compare {
+    private Compare() { }
+
+    private static final class Row {
+        final String mode;
+        final double score, error;
+        final String unit;
+
+        Row(String mode, double score, double error, String unit) {
+            this.mode = mode;
+            this.score = score;
+            this.error = error;
+            this.unit = unit;
+        }
+    }
+
+    // rows of a JMH CSV result file, keyed by benchmark name and its non-empty parameters
+    static Map<String, Row> read(String filename) throws IOException {
+        List<String> lines = Files.readAllLines(Paths.get(filename), StandardCharsets.UTF_8);
+        if (lines.isEmpty()) throw new IllegalArgumentException(filename + " is empty");
+        List<String> header = fields(lines.get(0));
+        int benchmark = header.indexOf("Benchmark"), mode = header.indexOf("Mode"), score = header.indexOf("Score");
+        int unit = header.indexOf("Unit"), error = -1;
+        for (int c = 0; c < header.size(); c++) {
+            if (header.get(c).startsWith("Score Error")) error = c;
+        }
+        if (benchmark < 0 || mode < 0 || score < 0 || error < 0 || unit < 0)
+            throw new IllegalArgumentException(filename + " is not a JMH CSV result file");
+
+        Map<String, Row> rows = new LinkedHashMap<>();
+        for (int i = 1; i < lines.size(); i++) {
+            if (lines.get(i).isEmpty()) continue;
+            List<String> f = fields(lines.get(i));
+            StringBuilder key = new StringBuilder(f.get(benchmark));
+            for (int c = 0; c < header.size() && c < f.size(); c++) {
+                if (header.get(c).startsWith("Param: ") && !f.get(c).isEmpty())
+                    key.append(' ').append(header.get(c).substring(7)).append('=').append(f.get(c));
+            }
+            double err = f.get(error).isEmpty() || f.get(error).equals("NaN") ? 0 : Double.parseDouble(f.get(error));
+            rows.put(key.toString(), new Row(f.get(mode), Double.parseDouble(f.get(score)), err, f.get(unit)));
+        }
+        return rows;
+    }
+
+    // comma-separated fields, unquoting "..." fields ("" inside quotes is a quote)
+    private static List<String> fields(String line) {
+        List<String> f = new ArrayList<>();
+        StringBuilder sb = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') sb.append(line.charAt(++i));
+                else if (c == '"') quoted = false;
+                else sb.append(c);
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                f.add(sb.toString());
+                sb.setLength(0);
+            } else {
+                sb.append(c);
+            }
+        }
+        f.add(sb.toString());
+        return f;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.out.println("Usage: java bench.Compare <baseline.csv> <results.csv>");
+            return;
+        }
+        Map<String, Row> baseline = read(args[0]), current = read(args[1]);
+        int width = 20;
+        for (String key : current.keySet()) width = Math.max(width, key.length());
+        System.out.printf("%-" + width + "s %24s %24s %9s%n", "benchmark", "baseline", "current", "speedup");
+        for (Map.Entry<String, Row> e : current.entrySet()) {
+            Row now = e.getValue(), base = baseline.get(e.getKey());
+            String shown = String.format("%.3f +- %.3f %s", now.score, now.error, now.unit);
+            if (base == null || !base.unit.equals(now.unit) || !base.mode.equals(now.mode)) {
+                System.out.printf("%-" + width + "s %24s %24s %9s%n", e.getKey(), "-", shown, "new");
+                continue;
+            }
+            // time per operation: lower is faster; throughput: higher is faster
+            double speedup = now.mode.equals("thrpt") ? now.score / base.score : base.score / now.score;
+            boolean noise = Math.abs(now.score - base.score) <= now.error + base.error;
+            System.out.printf("%-" + width + "s %24s %24s %8.2fx%s%n", e.getKey(),
+                              String.format("%.3f +- %.3f %s", base.score, base.error, base.unit),
+                              shown, speedup, noise ? " ~" : "");
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package bench;
+
+/**
+ * Engines: the benchmarks' view of the five assignment engines.
+ *
+ * JMH only accepts benchmarks in a named package, and the engines live in the unnamed package,
+ * which a named package cannot import. So the benchmarks reach the engines through this interface:
+ * EngineWorkloads (unnamed package) implements it on top of the BenchInputs generators and is loaded
+ * once by name. A benchmark builds its Workload in @Setup; calling it is then an ordinary
+ * monomorphic interface call that the JIT inlines, so the indirection costs nothing measurable.
+ *
+ * Every input is generated from SEED, so a sweep can be rerun against a saved baseline and
+ * compared point by point (see Compare). Data files are read relative to -Dbench.root (default:
+ * the working directory, which should be the repository root).
+ */
+public interface Engines {
+    long SEED = 20240601L;
+
+    // one operation on inputs prepared in advance; the result goes to the benchmark's Blackhole
+    interface Workload {
+        Object run();
+    }
+
+    // SAP.length on queries vertex pairs, over hypernyms.txt ("hypernyms") or a generated rooted DAG
+    // with the given number of vertices
+    Workload sapLength(String graph, int queries);
+
+    // WordNet.distance on queries noun pairs, over hypernyms.txt with generated synsets
+    Workload wordNetDistance(int queries);
+
+    // SeamCarver.findVerticalSeam on one generated width-by-height picture
+    Workload findVerticalSeam(int width, int height);
+
+    // a fresh SeamCarver on a generated picture, then seams rounds of find + removeVerticalSeam
+    Workload removeVerticalSeams(int width, int height, int seams);
+
+    // CircularSuffixArray construction on n bytes of generated text
+    Workload circularSuffixArray(int n);
+
+    // BurrowsWheeler transform and inverse transform of n bytes of generated text
+    Workload burrowsWheelerRoundTrip(int n);
+
+    // MoveToFront encode and decode of the BWT of n bytes of generated text
+    Workload moveToFrontRoundTrip(int n);
+
+    // BoggleSolver.getAllValidWords on generated side-by-side boards, one board per call; the
+    // dictionary is a word list file, or 100,000 generated words if dictionary is empty
+    Workload boggle(String dictionary, int side);
+
+    // eliminateAll on a fresh copy of a division: a team file of baseball/src, or a generated
+    // division with the given number of teams
+    Workload eliminateAll(String division);
+
+    // the implementation in the unnamed package
+    static Engines load() {
+        try {
+            return (Engines) Class.forName("EngineWorkloads").getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("EngineWorkloads is not on the classpath", e);
+        }
+    }
+}
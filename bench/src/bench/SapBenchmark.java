@@ -0,0 +1,64 @@
+package bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SapBenchmark: SAP.length and WordNet.distance, in ns per query. The graph is hypernyms.txt or a
+ * generated WordNet-shaped rooted DAG swept over sizes.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class SapBenchmark {
+    private static final int QUERIES = 64;
+
+    @State(Scope.Benchmark)
+    public static class Graph {
+        @Param({ "hypernyms", "10000", "100000", "1000000" })
+        public String graph;
+
+        Engines.Workload queries;
+
+        @Setup
+        public void setup() {
+            queries = Engines.load().sapLength(graph, QUERIES);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Nouns {
+        Engines.Workload queries;
+
+        @Setup
+        public void setup() {
+            queries = Engines.load().wordNetDistance(QUERIES);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(QUERIES)
+    public Object sapLength(Graph state) {
+        return state.queries.run();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(QUERIES)
+    public Object wordNetDistance(Nouns state) {
+        return state.queries.run();
+    }
+}
@@ -0,0 +1,56 @@
+package bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SeamBenchmark: SeamCarver.findVerticalSeam, and find + removeVerticalSeam on a fresh carver,
+ * in us per seam on generated pictures swept over sizes.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class SeamBenchmark {
+    private static final int SEAMS = 10;
+
+    @Param({ "200x150", "500x400", "1000x800" })
+    public String size;
+
+    private Engines.Workload find;
+    private Engines.Workload findAndRemove;
+
+    @Setup
+    public void setup() {
+        String[] wh = size.split("x");
+        int width = Integer.parseInt(wh[0]), height = Integer.parseInt(wh[1]);
+        Engines engines = Engines.load();
+        find = engines.findVerticalSeam(width, height);
+        findAndRemove = engines.removeVerticalSeams(width, height, SEAMS);
+    }
+
+    @Benchmark
+    public Object findVerticalSeam() {
+        return find.run();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SEAMS)
+    public Object findAndRemoveVerticalSeam() {
+        return findAndRemove.run();
+    }
+}
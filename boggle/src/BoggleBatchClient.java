@@ -0,0 +1,38 @@
+// File: BoggleBatchClient.java
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * BoggleBatchClient: scores many random Hasbro boards with one shared BoggleSolver
+ * and reports boards/second as the number of worker threads doubles.
+ * Usage:
+ *   java BoggleBatchClient <dictionary-file|snapshot-file> [boards] [max-threads]
+ */
+public class BoggleBatchClient {
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.out.println("Usage: java BoggleBatchClient <dictionary-file|snapshot-file> [boards] [max-threads]");
+            return;
+        }
+        // read dictionary (word list or trie snapshot)
+        BoggleSolver solver = new BoggleSolver(FlatTrieSET.load(args[0]));
+        int n = (args.length > 1) ? Integer.parseInt(args[1]) : 100000;
+        int maxThreads = (args.length > 2) ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+
+        List<BoggleBoard> boards = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) boards.add(new BoggleBoard());
+
+        solver.scoreAll(boards.subList(0, Math.min(n, 10000)), 1); // warm up
+        long expected = -1;
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            long start = System.nanoTime();
+            int[] scores = solver.scoreAll(boards, threads);
+            double seconds = (System.nanoTime() - start) / 1e9;
+            long total = 0;
+            for (int s : scores) total += s;
+            if (expected >= 0 && total != expected) throw new IllegalStateException("scores differ across thread counts");
+            expected = total;
+            System.out.printf("%2d threads: %10.0f boards/s (total score %d)%n", threads, n / seconds, total);
+        }
+    }
+}
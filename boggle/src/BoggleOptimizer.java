@@ -0,0 +1,376 @@
+// File: BoggleOptimizer.java
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * BoggleOptimizer: searches for high-scoring boards by simulated annealing over single-cell mutations
+ * (plain hill climbing when the start temperature is 0), running independent chains in parallel.
+ *
+ * Implementation notes:
+ *  - Each chain keeps, for every dictionary word, the number of board paths that spell it; the board
+ *    score is the sum over words with a nonzero count, so a word is still counted once.
+ *  - Changing cell i only changes paths through i. One step picks a cell and searches only paths
+ *    through it, branching over all 26 letters at i; together with the path counts this gives the
+ *    exact score of all 25 single-cell mutations, and the new letter is drawn from them by heat bath.
+ *  - Paths that have not reached i yet are pruned once the trie below the current node is too shallow
+ *    to get there (Chebyshev distance to i > remaining letters), so the work stays near the changed cell.
+ *  - Moving to a new letter subtracts the old letter's paths through i (counted by the same search)
+ *    and searches the new letter's paths through i once more.
+ *  - Hill climbing (temperature 0) restarts from a random board when it stops improving.
+ *  - The best board of each chain is re-scored with BoggleSolver before it is reported.
+ *  - Boards are limited to 64 cells (visited cells are a long bitmask).
+ * Usage:
+ *   java BoggleOptimizer <dictionary-file|snapshot-file> [rows] [cols] [seconds] [chains] [temperature]
+ */
+public class BoggleOptimizer {
+    // proposal letters, roughly by English frequency ('Q' is the "Qu" tile)
+    private static final String LETTERS =
+        "EEEEEEEEEEEETTTTTTTTTAAAAAAAAOOOOOOOIIIIIIINNNNNNNSSSSSSHHHHHHRRRRRRDDDDLLLLUUUCCCMMMWWFFGGYYPPBBVKJXQZ";
+    private static final int R = 26;
+    private static final int Q = 'Q' - 'A';
+    private static final int U = 'U' - 'A';
+
+    private final BoggleSolver solver;
+    private final FlatTrieSET dict;
+    private final int[] scoreById;   // score of each word id, 0 for words shorter than 3
+    private final int[] height;      // height[x] = most letters on any path below trie node x
+
+    /** Result of one optimize() run: the best board over all chains and throughput figures. */
+    public static class Result {
+        private final BoggleBoard board;
+        private final int score;
+        private final long evaluated;
+        private final double seconds;
+
+        Result(BoggleBoard board, int score, long evaluated, double seconds) {
+            this.board = board;
+            this.score = score;
+            this.evaluated = evaluated;
+            this.seconds = seconds;
+        }
+
+        public BoggleBoard board() { return board; }
+        public int score() { return score; }
+        // boards scored (mutations evaluated) over all chains
+        public long evaluated() { return evaluated; }
+        public double seconds() { return seconds; }
+        public double boardsPerSecond() { return evaluated / seconds; }
+    }
+
+    public BoggleOptimizer(BoggleSolver solver) {
+        if (solver == null) throw new IllegalArgumentException("solver is null");
+        this.solver = solver;
+        dict = solver.dictionary();
+        scoreById = new int[dict.size()];
+        for (int id = 0; id < scoreById.length; id++) {
+            if (dict.wordLength(id) >= 3) scoreById[id] = solver.scoreOf(id);
+        }
+        // nodes are numbered breadth-first, so children come after their parent
+        height = new int[dict.nodes()];
+        for (int x = height.length - 1; x >= 0; x--) {
+            for (int c = 0; c < 26; c++) {
+                int y = dict.child(x, c);
+                if (y >= 0) height[x] = Math.max(height[x], height[y] + 1);
+            }
+        }
+    }
+
+    // best rows-by-cols board found within the time budget by the given number of parallel chains;
+    // temperature is the start temperature in points, cooled linearly to 0 (0 = hill climbing)
+    public Result optimize(int rows, int cols, long millis, int chains, double temperature, long seed) {
+        if (rows <= 0 || cols <= 0) throw new IllegalArgumentException("board must have at least one cell");
+        if (rows * cols > 64) throw new IllegalArgumentException("boards over 64 cells are not supported");
+        if (millis <= 0) throw new IllegalArgumentException("time budget must be positive");
+        if (chains <= 0) throw new IllegalArgumentException("chains must be positive");
+        if (temperature < 0) throw new IllegalArgumentException("temperature must be non-negative");
+
+        long start = System.nanoTime();
+        long deadline = start + millis * 1000000L;
+        SplittableRandom seeds = new SplittableRandom(seed);
+        List<Chain> list = new ArrayList<>(chains);
+        for (int k = 0; k < chains; k++) list.add(new Chain(rows, cols, seeds.split(), temperature, start, deadline));
+
+        if (chains == 1) {
+            list.get(0).run();
+        } else {
+            ExecutorService pool = Executors.newFixedThreadPool(chains);
+            try {
+                List<Future<?>> futures = new ArrayList<>();
+                for (Chain chain : list) futures.add(pool.submit(chain));
+                for (Future<?> f : futures) f.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("interrupted while optimizing", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("optimizer chain failed", e.getCause());
+            } finally {
+                pool.shutdownNow();
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        Chain best = list.get(0);
+        long evaluated = 0;
+        for (Chain chain : list) {
+            evaluated += chain.evaluated;
+            if (chain.bestScore > best.bestScore) best = chain;
+        }
+        BoggleBoard board = best.board(best.bestLetters);
+        int score = 0;
+        for (String word : solver.getAllValidWords(board)) score += solver.scoreOf(word);
+        if (score != best.bestScore)
+            throw new IllegalStateException("incremental score " + best.bestScore + " != solver score " + score);
+        return new Result(board, score, evaluated, seconds);
+    }
+
+    // one annealing chain with its own board, path counts and random stream
+    private class Chain implements Runnable {
+        private final int rows, cols, cells;
+        private final int[] letters;         // letters[cell] = letter - 'A'
+        private final int[] adjStart, adj;   // neighbor lists, as in BoggleSolver
+        private final int[] dist;            // dist[cell] = Chebyshev distance to the cell being changed
+        private final int[] paths;           // paths[id] = board paths spelling word id
+        private final int[] throughOld;      // paths[id] through the changed cell with its current letter
+        private final int[] letterBits;      // bit L set if word id has a path through the changed cell holding L
+        private final int[] delta = new int[R];
+        private final double[] weight = new double[R];
+        private final SplittableRandom random;
+        private final double temperature;
+        private final long start, deadline;
+
+        private int[] touched = new int[256];  // word ids with nonzero throughOld or letterBits
+        private int touchedSize;
+        private int score;
+        private int bestScore = -1;
+        private int[] bestLetters;
+        private long evaluated;
+
+        Chain(int rows, int cols, SplittableRandom random, double temperature, long start, long deadline) {
+            this.rows = rows;
+            this.cols = cols;
+            this.cells = rows * cols;
+            this.random = random;
+            this.temperature = temperature;
+            this.start = start;
+            this.deadline = deadline;
+            letters = new int[cells];
+            dist = new int[cells];
+            paths = new int[dict.size()];
+            throughOld = new int[dict.size()];
+            letterBits = new int[dict.size()];
+            adjStart = new int[cells + 1];
+            adj = new int[8 * cells];
+            int k = 0;
+            for (int r = 0; r < rows; r++) {
+                for (int c = 0; c < cols; c++) {
+                    for (int dr = -1; dr <= 1; dr++) {
+                        for (int dc = -1; dc <= 1; dc++) {
+                            if (dr == 0 && dc == 0) continue;
+                            int nr = r + dr, nc = c + dc;
+                            if (0 <= nr && nr < rows && 0 <= nc && nc < cols) adj[k++] = nr * cols + nc;
+                        }
+                    }
+                    adjStart[r * cols + c + 1] = k;
+                }
+            }
+        }
+
+        @Override
+        public void run() {
+            restart();
+            int stalled = 0;
+            for (long step = 0; ; step++) {
+                if ((step & 63) == 0 && System.nanoTime() >= deadline) return;
+                int cell = random.nextInt(cells);
+                int old = letters[cell];
+                evaluate(cell, old);
+                evaluated += R - 1;
+                int letter = choose(old);
+                if (letter != old) move(cell, old, letter);
+                clear();
+
+                if (score > bestScore) {
+                    keepBest();
+                    stalled = 0;
+                } else if (temperature == 0 && ++stalled > 50 * cells) {
+                    restart();     // hill climbing is stuck in a local maximum
+                    stalled = 0;
+                }
+            }
+        }
+
+        // random board, scored from scratch
+        private void restart() {
+            for (int cell = 0; cell < cells; cell++) letters[cell] = randomLetter();
+            Arrays.fill(paths, 0);
+            score = 0;
+            for (int cell = 0; cell < cells; cell++) search(cell, dict.root(), 0L, -1L);
+            evaluated++;
+            if (score > bestScore) keepBest();
+        }
+
+        // delta[L] = score change if cell held letter L, from one search that branches over all letters at cell
+        private void evaluate(int cell, int old) {
+            int r = cell / cols, c = cell % cols;
+            for (int k = 0; k < cells; k++) dist[k] = Math.max(Math.abs(k / cols - r), Math.abs(k % cols - c));
+            for (int k = 0; k < cells; k++) wildcard(k, dict.root(), 0L, cell, old, -1);
+
+            Arrays.fill(delta, 0);
+            for (int t = 0; t < touchedSize; t++) {
+                int id = touched[t];
+                if (paths[id] > throughOld[id]) continue;     // also spelled by a path avoiding cell
+                int bits = letterBits[id];
+                int s = scoreById[id];
+                if (paths[id] > 0) bits = ~bits;              // on the board only through cell: lost without a path
+                else s = -s;                                  // not on the board: gained with a path
+                for (int L = 0; L < R; L++) {
+                    if ((bits & (1 << L)) != 0) delta[L] -= s;
+                }
+            }
+        }
+
+        // letter for the cell: heat-bath choice at the current (linearly cooled) temperature,
+        // or a random best letter when hill climbing
+        private int choose(int old) {
+            double t = temperature * (deadline - System.nanoTime()) / (double) (deadline - start);
+            int max = delta[old];
+            for (int L = 0; L < R; L++) max = Math.max(max, delta[L]);
+            double total = 0;
+            for (int L = 0; L < R; L++) {
+                if (t > 0) weight[L] = Math.exp((delta[L] - max) / t);
+                else weight[L] = (delta[L] == max) ? 1 : 0;
+                total += weight[L];
+            }
+            double u = random.nextDouble() * total;
+            for (int L = 0; L < R; L++) {
+                u -= weight[L];
+                if (u < 0) return L;
+            }
+            return old;
+        }
+
+        // replace the paths through cell with the old letter by those with the new one
+        private void move(int cell, int old, int letter) {
+            for (int t = 0; t < touchedSize; t++) {
+                int id = touched[t];
+                if (throughOld[id] > 0) count(id, -throughOld[id]);
+            }
+            letters[cell] = letter;
+            long through = 1L << cell;
+            for (int k = 0; k < cells; k++) search(k, dict.root(), 0L, through);
+        }
+
+        private void clear() {
+            for (int t = 0; t < touchedSize; t++) {
+                throughOld[touched[t]] = 0;
+                letterBits[touched[t]] = 0;
+            }
+            touchedSize = 0;
+        }
+
+        // record the words on paths from cell through target, with every letter at target;
+        // tag is the letter placed at target once the path has passed it, -1 before
+        private void wildcard(int cell, int parent, long visited, int target, int old, int tag) {
+            visited |= 1L << cell;
+            if (cell == target) {
+                for (int L = 0; L < R; L++) extend(cell, advance(parent, L), visited, target, old, L);
+            } else {
+                int x = advance(parent, letters[cell]);
+                if (x < 0 || (tag < 0 && dist[cell] > height[x])) return;
+                extend(cell, x, visited, target, old, tag);
+            }
+        }
+
+        private void extend(int cell, int x, long visited, int target, int old, int tag) {
+            if (x < 0) return;
+            if (tag >= 0 && dict.isWord(x)) {
+                int id = dict.wordId(x);
+                if (scoreById[id] > 0) {
+                    if (throughOld[id] == 0 && letterBits[id] == 0) {
+                        if (touchedSize == touched.length) touched = Arrays.copyOf(touched, 2 * touchedSize);
+                        touched[touchedSize++] = id;
+                    }
+                    letterBits[id] |= 1 << tag;
+                    if (tag == old) throughOld[id]++;
+                }
+            }
+            for (int k = adjStart[cell], end = adjStart[cell + 1]; k < end; k++) {
+                int next = adj[k];
+                if ((visited & (1L << next)) == 0) wildcard(next, x, visited, target, old, tag);
+            }
+        }
+
+        // count every word path from cell that contains a cell in through (-1 for all paths);
+        // paths that cannot reach the changed cell any more are cut
+        private void search(int cell, int parent, long visited, long through) {
+            int x = advance(parent, letters[cell]);
+            if (x < 0) return;
+            visited |= 1L << cell;
+            boolean hit = (visited & through) != 0;
+            if (!hit && dist[cell] > height[x]) return;
+            if (hit && dict.isWord(x)) {
+                int id = dict.wordId(x);
+                if (scoreById[id] > 0) count(id, +1);
+            }
+            for (int k = adjStart[cell], end = adjStart[cell + 1]; k < end; k++) {
+                int next = adj[k];
+                if ((visited & (1L << next)) == 0) search(next, x, visited, through);
+            }
+        }
+
+        private void count(int id, int delta) {
+            int before = paths[id];
+            paths[id] = before + delta;
+            if (before == 0) score += scoreById[id];
+            else if (paths[id] == 0) score -= scoreById[id];
+        }
+
+        private void keepBest() {
+            bestScore = score;
+            bestLetters = letters.clone();
+        }
+
+        private int randomLetter() {
+            return LETTERS.charAt(random.nextInt(LETTERS.length())) - 'A';
+        }
+
+        private BoggleBoard board(int[] a) {
+            char[][] g = new char[rows][cols];
+            for (int k = 0; k < cells; k++) g[k / cols][k % cols] = (char) ('A' + a[k]);
+            return new BoggleBoard(g);
+        }
+    }
+
+    // trie node after reading letter from parent ('Q' reads "QU"), or -1
+    private int advance(int parent, int letter) {
+        if (parent < 0) return -1;
+        int x = dict.child(parent, letter);
+        if (x >= 0 && letter == Q) x = dict.child(x, U);
+        return x;
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.out.println("Usage: java BoggleOptimizer <dictionary-file|snapshot-file> [rows] [cols] [seconds] [chains] [temperature]");
+            return;
+        }
+        int rows = (args.length > 1) ? Integer.parseInt(args[1]) : 4;
+        int cols = (args.length > 2) ? Integer.parseInt(args[2]) : 4;
+        double seconds = (args.length > 3) ? Double.parseDouble(args[3]) : 10;
+        int chains = (args.length > 4) ? Integer.parseInt(args[4]) : Runtime.getRuntime().availableProcessors();
+        double temperature = (args.length > 5) ? Double.parseDouble(args[5]) : 10;
+
+        BoggleOptimizer optimizer = new BoggleOptimizer(new BoggleSolver(FlatTrieSET.load(args[0])));
+        Result result = optimizer.optimize(rows, cols, (long) (seconds * 1000), chains, temperature, System.nanoTime());
+        System.out.print(result.board());
+        System.out.println("Score = " + result.score());
+        System.out.printf("%d boards in %.1f s on %d chains: %.0f boards/s%n",
+                          result.evaluated(), result.seconds(), chains, result.boardsPerSecond());
+    }
+}
@@ -1,52 +1,231 @@
 // File: BoggleSolver.java
-import java.util.HashSet;
-import java.util.Set;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 
 /**
  * BoggleSolver: finds all valid words on a BoggleBoard using a given dictionary.
  *
  * Implementation notes:
- *  - Uses a TrieSET for dictionary membership and prefix checking.
- *  - DFS from each board cell; prune using hasPrefix().
+ *  - Uses a FlatTrieSET (array-backed, built once) for dictionary membership and prefix checking.
+ *  - DFS from each board cell carries the current trie node id and advances one child per letter
+ *    (two for the 'Qu' tile), pruning as soon as the child is missing; no prefix strings are built.
  *  - Handles the special 'Qu' tile: BoggleBoard.getLetter(i,j) returns 'Q' to denote "Qu".
+ *  - The dictionary is immutable after construction, so one solver can be shared by many threads;
+ *    per-solve state lives in a Scratch, and the batch methods keep one Scratch per worker.
+ *  - Found words are reported as dictionary word ids. A per-Scratch stamp array indexed by word id
+ *    rejects a word already found in the current solve with one int comparison, so no String is
+ *    built or hashed during the search; scores come from a table indexed by word id.
+ *  - Each solve copies the board into an int[] of letter codes (one validated getLetter per cell)
+ *    and walks a neighbor list built once per board shape and kept in the Scratch.
+ *    Boards of up to 64 cells track visited cells in a long bitmask; larger boards use a boolean[].
+ *  - Boards over 64 cells are searched with an explicit stack instead of recursion. A path can
+ *    never be longer than the longest dictionary word, so the stack is sized by that bound once,
+ *    and no path is extended past a trie node without children.
+ *  - getAllValidWords(board, threads) splits the start cells of one large board into chunks that
+ *    worker threads claim; the words each worker finds are merged with the same stamp dedup.
  */
 public class BoggleSolver {
-    private final TrieSET dict;
+    private final FlatTrieSET dict;
+    private final byte[] scoreById;   // scoreById[id] = score of dictionary word id
+    private final ThreadLocal<Scratch> local;
+    private final int maxLength;      // longest dictionary word; bounds the DFS depth
+
+    private static final int Q = 'Q' - 'A';
+    private static final int U = 'U' - 'A';
+    private static final int CHUNK = 256;   // start cells per task in a region-parallel solve
+
+    private static final Metrics.Histogram NODES = Metrics.histogram("boggle.trieNodesVisited");
+    private static final Metrics.Histogram SOLVE_NANOS = Metrics.histogram("boggle.solveNanos");
+
+    // per-worker mutable state, reused across boards; static, so a thread's ThreadLocal value does
+    // not keep its solver (the ThreadLocal key) reachable
+    private static class Scratch {
+        int rows = -1, cols = -1, cells;
+        int[] letters = new int[0];     // letters[cell] = letter - 'A', cell = r * cols + c
+        int[] adjStart = new int[1];    // neighbors of cell are adj[adjStart[cell] .. adjStart[cell + 1])
+        int[] adj = new int[0];
+        boolean[] marked = new boolean[0];  // visited cells, for boards over 64 cells
+        // explicit DFS stack, one entry per depth: cell, trie node, word length, next adjacency index
+        final int[] cellAt, nodeAt, lenAt, edgeAt;
+        final int[] stamp;                          // stamp[id] == solve if word id was found in this solve
+        int solve;
+        int[] found = new int[64];                  // word ids found in this solve, in discovery order
+        int size;
+        long nodes;                                 // trie nodes entered in this solve (with metrics on)
+
+        Scratch(int words, int maxLength) {
+            cellAt = new int[maxLength + 1];
+            nodeAt = new int[maxLength + 1];
+            lenAt = new int[maxLength + 1];
+            edgeAt = new int[maxLength + 1];
+            stamp = new int[words];
+        }
+
+        // load the board's letters (rebuilding neighbor lists only if its shape changed) and clear results
+        void reset(BoggleBoard board) {
+            int m = board.rows(), n = board.cols();
+            if (m != rows || n != cols) shape(m, n);
+            for (int r = 0; r < m; r++)
+                for (int c = 0; c < n; c++)
+                    letters[r * n + c] = board.getLetter(r, c) - 'A';
+            size = 0;
+            nodes = 0;
+            if (++solve == 0) {               // wrapped around: old stamps could collide
+                Arrays.fill(stamp, 0);
+                solve = 1;
+            }
+        }
+
+        // neighbor lists for an m-by-n board
+        private void shape(int m, int n) {
+            rows = m;
+            cols = n;
+            cells = m * n;
+            letters = new int[cells];
+            marked = (cells > 64) ? new boolean[cells] : new boolean[0];
+            adjStart = new int[cells + 1];
+            adj = new int[8 * cells];
+            int k = 0;
+            for (int r = 0; r < m; r++) {
+                for (int c = 0; c < n; c++) {
+                    for (int dr = -1; dr <= 1; dr++) {
+                        for (int dc = -1; dc <= 1; dc++) {
+                            if (dr == 0 && dc == 0) continue;
+                            int nr = r + dr, nc = c + dc;
+                            if (0 <= nr && nr < m && 0 <= nc && nc < n) adj[k++] = nr * n + nc;
+                        }
+                    }
+                    adjStart[r * n + c + 1] = k;
+                }
+            }
+        }
+
+        void add(int id) {
+            if (stamp[id] == solve) return;
+            stamp[id] = solve;
+            if (size == found.length) found = Arrays.copyOf(found, 2 * size);
+            found[size++] = id;
+        }
+    }
 
     // Constructor: build trie from dictionary array
     public BoggleSolver(String[] dictionary) {
+        this(new FlatTrieSET(checkNotNull(dictionary)));
+    }
+
+    // Constructor: use a trie already built or loaded from a snapshot (see FlatTrieSET.load)
+    public BoggleSolver(FlatTrieSET dictionary) {
         if (dictionary == null) throw new IllegalArgumentException("dictionary is null");
-        dict = new TrieSET();
-        for (String w : dictionary) {
-            if (w != null && w.length() > 0)
-                dict.add(w);
-        }
+        dict = dictionary;
+        scoreById = new byte[dict.size()];
+        for (int id = 0; id < scoreById.length; id++) scoreById[id] = (byte) score(dict.wordLength(id));
+        maxLength = dict.maxLength();
+        int words = dict.size(), depth = maxLength;
+        local = ThreadLocal.withInitial(() -> new Scratch(words, depth));
     }
 
     // Returns all valid words in the given Boggle board
     public Iterable<String> getAllValidWords(BoggleBoard board) {
         if (board == null) throw new IllegalArgumentException("board is null");
-        int R = board.rows();
-        int C = board.cols();
-        boolean[][] marked = new boolean[R][C];
-        Set<String> result = new HashSet<>();
-
-        StringBuilder sb = new StringBuilder();
-        for (int r = 0; r < R; r++) {
-            for (int c = 0; c < C; c++) {
-                dfs(board, r, c, marked, sb, result);
-            }
+        Scratch s = local.get();
+        solve(board, s);
+        return words(s);
+    }
+
+    // Returns all valid words in the given Boggle board, splitting its start cells across threads
+    // (worth it for large boards; small boards are solved on the calling thread)
+    public Iterable<String> getAllValidWords(BoggleBoard board, int threads) {
+        if (board == null) throw new IllegalArgumentException("board is null");
+        if (threads <= 0) throw new IllegalArgumentException("threads must be positive");
+        Scratch s = local.get();
+        int cells = board.rows() * board.cols();
+        int chunks = (cells + CHUNK - 1) / CHUNK;
+        if (threads == 1 || chunks <= 1) {
+            solve(board, s);
+            return words(s);
+        }
+        long start = Metrics.ENABLED ? System.nanoTime() : 0;
+        List<Scratch> workers = runParallel(chunks, threads, () -> {
+            Scratch w = newScratch();
+            w.reset(board);
+            return w;
+        }, (w, i) -> search(w, i * CHUNK, Math.min(cells, (i + 1) * CHUNK)));
+        s.reset(board);
+        for (Scratch w : workers) {
+            for (int k = 0; k < w.size; k++) s.add(w.found[k]);
+            s.nodes += w.nodes;
         }
-        return result;
+        if (Metrics.ENABLED) {
+            NODES.record(s.nodes);
+            SOLVE_NANOS.recordSince(start);
+        }
+        return words(s);
+    }
+
+    // Returns the dictionary ids of all valid words in the given Boggle board (see word(id), scoreOf(id))
+    public int[] getAllValidWordIds(BoggleBoard board) {
+        if (board == null) throw new IllegalArgumentException("board is null");
+        Scratch s = local.get();
+        solve(board, s);
+        return Arrays.copyOf(s.found, s.size);
+    }
+
+    // Returns the valid words of every board, solving boards in parallel on the given number of threads
+    public List<Iterable<String>> solveAll(List<BoggleBoard> boards, int threads) {
+        validate(boards, threads);
+        List<Iterable<String>> results = new ArrayList<>(boards.size());
+        for (int i = 0; i < boards.size(); i++) results.add(null);
+        runParallel(boards.size(), threads, this::newScratch, (s, i) -> {
+            solve(boards.get(i), s);
+            results.set(i, words(s));
+        });
+        return results;
+    }
+
+    // Returns the total score of every board; only the per-worker id buffers are touched
+    public int[] scoreAll(List<BoggleBoard> boards, int threads) {
+        validate(boards, threads);
+        int[] scores = new int[boards.size()];
+        runParallel(boards.size(), threads, this::newScratch, (s, i) -> {
+            solve(boards.get(i), s);
+            scores[i] = score(s);
+        });
+        return scores;
     }
 
     // Returns score of the word (0 if not in dictionary)
     public int scoreOf(String word) {
         if (word == null) throw new IllegalArgumentException("word is null");
         if (!dict.contains(word)) return 0;
-        int L = word.length();
+        return score(word.length());
+    }
+
+    // Returns score of the dictionary word with the given id
+    public int scoreOf(int id) {
+        validateId(id);
+        return scoreById[id];
+    }
+
+    // Returns the dictionary word with the given id
+    public String word(int id) {
+        validateId(id);
+        return dict.word(id);
+    }
+
+    // the solver's dictionary, for tools that walk the trie themselves (BoggleOptimizer)
+    FlatTrieSET dictionary() {
+        return dict;
+    }
+
+    private static int score(int L) {
         if (L <= 4) return 1;
         if (L == 5) return 2;
         if (L == 6) return 3;
@@ -54,44 +233,156 @@ public class BoggleSolver {
         return 11;
     }
 
-    // DFS recursive search
-    private void dfs(BoggleBoard board, int r, int c, boolean[][] marked, StringBuilder sb, Set<String> result) {
-        // append letter (handle 'Q' as "QU")
-        char ch = board.getLetter(r, c);
-        int prevLen = sb.length();
-        if (ch == 'Q') {
-            sb.append("QU");
-        } else {
-            sb.append(ch);
+    // ---- Private helpers ----
+
+    private static String[] checkNotNull(String[] dictionary) {
+        if (dictionary == null) throw new IllegalArgumentException("dictionary is null");
+        return dictionary;
+    }
+
+    private void validateId(int id) {
+        if (id < 0 || id >= scoreById.length) throw new IllegalArgumentException("word id out of range: " + id);
+    }
+
+    private Scratch newScratch() {
+        return new Scratch(dict.size(), maxLength);
+    }
+
+    private List<String> words(Scratch s) {
+        List<String> list = new ArrayList<>(s.size);
+        for (int k = 0; k < s.size; k++) list.add(dict.word(s.found[k]));
+        return list;
+    }
+
+    private int score(Scratch s) {
+        int total = 0;
+        for (int k = 0; k < s.size; k++) total += scoreById[s.found[k]];
+        return total;
+    }
+
+    private interface BoardTask {
+        void run(Scratch s, int task);
+    }
+
+    private static void validate(List<BoggleBoard> boards, int threads) {
+        if (boards == null) throw new IllegalArgumentException("boards is null");
+        if (threads <= 0) throw new IllegalArgumentException("threads must be positive");
+        for (BoggleBoard b : boards) if (b == null) throw new IllegalArgumentException("board is null");
+    }
+
+    // each worker owns one Scratch and claims tasks 0..tasks-1 from a shared counter;
+    // returns the workers' Scratches
+    private List<Scratch> runParallel(int tasks, int threads, Supplier<Scratch> scratch, BoardTask task) {
+        AtomicInteger next = new AtomicInteger();
+        List<Scratch> used = Collections.synchronizedList(new ArrayList<>());
+        Runnable worker = () -> {
+            Scratch s = scratch.get();
+            used.add(s);
+            for (int i = next.getAndIncrement(); i < tasks; i = next.getAndIncrement()) {
+                task.run(s, i);
+            }
+        };
+        if (threads == 1) {
+            worker.run();
+            return used;
+        }
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) futures.add(pool.submit(worker));
+            for (Future<?> f : futures) f.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while solving boards", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("solver worker failed", e.getCause());
+        } finally {
+            pool.shutdownNow();
         }
+        return used;
+    }
 
-        // prune: if there is no word in dictionary with this prefix, backtrack
-        if (!dict.hasPrefix(sb.toString())) {
-            sb.setLength(prevLen);
-            return;
+    // solve one board into s.found
+    private void solve(BoggleBoard board, Scratch s) {
+        long start = Metrics.ENABLED ? System.nanoTime() : 0;
+        s.reset(board);
+        search(s, 0, s.cells);
+        if (Metrics.ENABLED) {
+            NODES.record(s.nodes);
+            SOLVE_NANOS.recordSince(start);
         }
+    }
 
-        // if word length >= 3 and in dictionary, add
-        if (sb.length() >= 3 && dict.contains(sb.toString())) {
-            result.add(sb.toString());
+    // add the words on paths starting at cells from..to-1 of the board loaded in s
+    private void search(Scratch s, int from, int to) {
+        int root = dict.root();
+        for (int cell = from; cell < to; cell++) {
+            if (s.cells <= 64) dfs(cell, root, 0, 0L, s);
+            else dfs(cell, s);
         }
+    }
 
-        // explore neighbors
-        marked[r][c] = true;
-        int R = board.rows();
-        int C = board.cols();
-        for (int dr = -1; dr <= 1; dr++) {
-            for (int dc = -1; dc <= 1; dc++) {
-                if (dr == 0 && dc == 0) continue;
-                int nr = r + dr;
-                int nc = c + dc;
-                if (0 <= nr && nr < R && 0 <= nc && nc < C && !marked[nr][nc]) {
-                    dfs(board, nr, nc, marked, sb, result);
-                }
+    // trie node after reading the letter at cell from parent ('Q' reads "QU"), or -1
+    private int advance(int parent, int letter) {
+        int x = dict.child(parent, letter);
+        if (x >= 0 && letter == Q) x = dict.child(x, U);
+        return x;
+    }
+
+    // DFS for boards of up to 64 cells; visited is a bitmask of cells on the current path
+    private void dfs(int cell, int parent, int len, long visited, Scratch s) {
+        int letter = s.letters[cell];
+        int x = advance(parent, letter);
+        if (x < 0) return;
+        if (Metrics.ENABLED) s.nodes++;
+        len += (letter == Q) ? 2 : 1;
+        if (len >= 3 && dict.isWord(x)) s.add(dict.wordId(x));
+        if (!dict.hasChildren(x)) return;
+
+        visited |= 1L << cell;
+        int[] adj = s.adj;
+        for (int k = s.adjStart[cell], end = s.adjStart[cell + 1]; k < end; k++) {
+            int next = adj[k];
+            if ((visited & (1L << next)) == 0) dfs(next, x, len, visited, s);
+        }
+    }
+
+    // DFS for boards over 64 cells, with an explicit stack (depth <= maxLength) and visited cells in s.marked
+    private void dfs(int origin, Scratch s) {
+        if (!push(s, 0, origin, dict.root(), 0)) return;
+        boolean[] marked = s.marked;
+        int[] adj = s.adj, adjStart = s.adjStart;
+        int[] cellAt = s.cellAt, edgeAt = s.edgeAt;
+        int top = 0;
+        while (top >= 0) {
+            int cell = cellAt[top];
+            int k = edgeAt[top];
+            if (k == adjStart[cell + 1]) {
+                marked[cell] = false;
+                top--;
+                continue;
             }
+            edgeAt[top] = k + 1;
+            int next = adj[k];
+            if (!marked[next] && push(s, top + 1, next, s.nodeAt[top], s.lenAt[top])) top++;
         }
-        marked[r][c] = false;
-        sb.setLength(prevLen);
+    }
+
+    // step from trie node parent onto cell at stack depth d; false if no word continues there
+    private boolean push(Scratch s, int d, int cell, int parent, int len) {
+        int letter = s.letters[cell];
+        int x = advance(parent, letter);
+        if (x < 0) return false;
+        if (Metrics.ENABLED) s.nodes++;
+        len += (letter == Q) ? 2 : 1;
+        if (len >= 3 && dict.isWord(x)) s.add(dict.wordId(x));
+        if (!dict.hasChildren(x)) return false;
+        s.marked[cell] = true;
+        s.cellAt[d] = cell;
+        s.nodeAt[d] = x;
+        s.lenAt[d] = len;
+        s.edgeAt[d] = s.adjStart[cell];
+        return true;
     }
 
 }
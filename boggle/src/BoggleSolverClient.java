@@ -1,21 +1,19 @@
 // File: BoggleSolverClient.java
-import java.io.File;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Scanner;
-
+/**
+ * BoggleSolverClient: prints the words and score of one board.
+ * The dictionary may be a word list or a snapshot built with "java FlatTrieSET dict.txt dict.trie",
+ * which loads without parsing or building the trie.
+ * Usage:
+ *   java BoggleSolverClient <dictionary-file|snapshot-file> <board-file>
+ */
 public class BoggleSolverClient {
     public static void main(String[] args) throws Exception {
         if (args.length < 2) {
-            System.out.println("Usage: java BoggleSolverClient <dictionary-file> <board-file>");
+            System.out.println("Usage: java BoggleSolverClient <dictionary-file|snapshot-file> <board-file>");
             return;
         }
-        // read dictionary
-        List<String> dict = new ArrayList<>();
-        try (Scanner sc = new Scanner(new File(args[0]))) {
-            while (sc.hasNext()) dict.add(sc.next().toUpperCase());
-        }
-        BoggleSolver solver = new BoggleSolver(dict.toArray(new String[0]));
+        // read dictionary (word list or trie snapshot)
+        BoggleSolver solver = new BoggleSolver(FlatTrieSET.load(args[0]));
 
         // read board
         BoggleBoard board = new BoggleBoard(args[1]);
@@ -0,0 +1,320 @@
+// File: FlatTrieSET.java
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * FlatTrieSET: an immutable A-Z trie set built once from a dictionary, stored in flat int arrays.
+ * - Nodes are numbered in breadth-first order, root = 0; the children of a node are contiguous,
+ *   so a node needs only a child bitmask and the id of its first child:
+ *     child(x, c) = first[x] + bitCount(mask[x] & ((1 << c) - 1))   if bit c of mask[x] is set
+ * - count[x] = number of words in the subtree of x, so hasPrefix is a walk plus an O(1) check.
+ * - Words have dense ids 0..size()-1 in sorted order; the word at node x (if any) has id lo[x],
+ *   the first key of its subtree, so callers can keep per-word state in plain int arrays.
+ * - 16 bytes per node, against a 26-slot Node[] (120+ bytes) per node in TrieSET; the words
+ *   themselves are one byte[] of letters plus an offset per word. word(id) builds a new String
+ *   from them on each call and nothing keeps it, so the set holds no per-word objects.
+ * - Empty keys and keys with characters other than A-Z are ignored.
+ * - save() writes the arrays as a binary snapshot (little-endian ints, see SNAPSHOT_MAGIC) that
+ *   load() memory-maps and bulk-copies back, so a process can start without parsing or building;
+ *   load() also accepts a plain word list, read as bytes rather than through a Scanner.
+ * Usage:
+ *   java FlatTrieSET <dictionary-file> <snapshot-file>   (build a snapshot from a word list)
+ */
+public class FlatTrieSET {
+    private static final int R = 26;            // A-Z
+    private static final int WORD = 1 << R;     // mask bit: node ends a word
+    private static final int SNAPSHOT_MAGIC = 0x46545249;   // "IRTF" as little-endian bytes
+    private static final int SNAPSHOT_VERSION = 1;
+    private static final int SNAPSHOT_HEADER = 20;          // magic, version, nodes, words, letters
+
+    private final int[] mask;   // bits 0..25 = children present, bit 26 = isWord
+    private final int[] first;  // id of first child
+    private final int[] count;  // words in subtree (including the node itself)
+    private final int[] lo;     // id of the first word in subtree (the node's own word id if isWord)
+    private final byte[] letters; // all words concatenated, in id (sorted) order
+    private final int[] start;    // word id spans letters[start[id], start[id + 1])
+
+    // build from dictionary words; order and duplicates do not matter
+    public FlatTrieSET(String[] dictionary) {
+        if (dictionary == null) throw new IllegalArgumentException("dictionary is null");
+        List<String> valid = new ArrayList<>();
+        for (String w : dictionary) {
+            if (w != null && w.length() > 0 && isAZ(w)) valid.add(w);
+        }
+        String[] keys = valid.toArray(new String[0]);
+        Arrays.sort(keys);
+        int k = 0, chars = 0;
+        for (int i = 0; i < keys.length; i++) {
+            if (k == 0 || !keys[i].equals(keys[k - 1])) {
+                keys[k++] = keys[i];
+                chars += keys[i].length();
+            }
+        }
+
+        // breadth-first over ranges of sorted keys: node x covers keys[lo[x], hi[x]), all sharing depth[x] letters
+        int cap = chars + 1;
+        int[] m = new int[cap], f = new int[cap], c = new int[cap];
+        int[] l = new int[cap], hi = new int[cap], depth = new int[cap];
+        int nodes = 1;
+        hi[0] = k;
+        for (int x = 0; x < nodes; x++) {
+            int start = l[x], end = hi[x], d = depth[x];
+            c[x] = end - start;
+            if (start < end && keys[start].length() == d) {
+                m[x] |= WORD;
+                start++;
+            }
+            f[x] = nodes;
+            for (int i = start; i < end; ) {
+                char ch = keys[i].charAt(d);
+                int j = i + 1;
+                while (j < end && keys[j].charAt(d) == ch) j++;
+                m[x] |= 1 << (ch - 'A');
+                l[nodes] = i;
+                hi[nodes] = j;
+                depth[nodes] = d + 1;
+                nodes++;
+                i = j;
+            }
+        }
+        mask = Arrays.copyOf(m, nodes);
+        first = Arrays.copyOf(f, nodes);
+        count = Arrays.copyOf(c, nodes);
+        lo = Arrays.copyOf(l, nodes);
+        letters = new byte[chars];
+        start = new int[k + 1];
+        for (int i = 0; i < k; i++) {
+            String w = keys[i];
+            for (int d = 0; d < w.length(); d++) letters[start[i] + d] = (byte) w.charAt(d);
+            start[i + 1] = start[i] + w.length();
+        }
+    }
+
+    private FlatTrieSET(int[] mask, int[] first, int[] count, int[] lo, byte[] letters, int[] start) {
+        this.mask = mask;
+        this.first = first;
+        this.count = count;
+        this.lo = lo;
+        this.letters = letters;
+        this.start = start;
+    }
+
+    // load a snapshot written by save(), or build from a whitespace-separated word list
+    // (lowercase letters are uppercased, as the Boggle clients do); a file is read as a snapshot
+    // only if its magic, version and array lengths all match, so a word list starting with
+    // "IRTF" is still read as words
+    public static FlatTrieSET load(String filename) throws IOException {
+        if (filename == null) throw new IllegalArgumentException("filename is null");
+        try (FileChannel ch = FileChannel.open(Paths.get(filename), StandardOpenOption.READ)) {
+            long size = ch.size();
+            if (size >= SNAPSHOT_HEADER) {
+                MappedByteBuffer buf = ch.map(FileChannel.MapMode.READ_ONLY, 0, size);
+                buf.order(ByteOrder.LITTLE_ENDIAN);
+                if (isSnapshot(buf)) return fromSnapshot(buf, filename);
+            }
+        }
+        return new FlatTrieSET(readWords(filename));
+    }
+
+    // write the trie as a binary snapshot for load()
+    public void save(String filename) throws IOException {
+        if (filename == null) throw new IllegalArgumentException("filename is null");
+        int nodes = mask.length, n = size();
+        ByteBuffer buf = ByteBuffer.allocate(SNAPSHOT_HEADER + 4 * (4 * nodes + n + 1) + letters.length);
+        buf.order(ByteOrder.LITTLE_ENDIAN);
+        buf.putInt(SNAPSHOT_MAGIC).putInt(SNAPSHOT_VERSION).putInt(nodes).putInt(n).putInt(letters.length);
+        IntBuffer ints = buf.asIntBuffer();
+        ints.put(mask).put(first).put(count).put(lo).put(start);
+        buf.position(buf.position() + 4 * ints.position());
+        buf.put(letters);
+        try (OutputStream out = new BufferedOutputStream(new FileOutputStream(filename))) {
+            out.write(buf.array());
+        }
+    }
+
+    // number of words in the set
+    public int size() {
+        return count[0];
+    }
+
+    // number of trie nodes
+    public int nodes() {
+        return mask.length;
+    }
+
+    // length of the longest word (0 for an empty set)
+    public int maxLength() {
+        int max = 0;
+        for (int id = 0; id + 1 < start.length; id++) max = Math.max(max, start[id + 1] - start[id]);
+        return max;
+    }
+
+    // check if exact word exists
+    public boolean contains(String key) {
+        if (key == null) throw new IllegalArgumentException("null key");
+        int x = get(key);
+        return x >= 0 && isWord(x);
+    }
+
+    // check whether there exists at least one dictionary word with given prefix
+    public boolean hasPrefix(String prefix) {
+        if (prefix == null) throw new IllegalArgumentException("null prefix");
+        int x = get(prefix);
+        return x >= 0 && count[x] > 0;
+    }
+
+    // all keys in sorted order
+    public Iterable<String> keys() {
+        List<String> list = new ArrayList<>();
+        collect(0, new StringBuilder(), list);
+        return list;
+    }
+
+    // ---- node navigation for BoggleSolver ----
+
+    // root node id (the root of an empty set has no children and count 0)
+    int root() {
+        return 0;
+    }
+
+    // child of node x for letter ch, or -1
+    int child(int x, char ch) {
+        return child(x, ch - 'A');
+    }
+
+    // child of node x for letter code c = letter - 'A', or -1
+    int child(int x, int c) {
+        if (c < 0 || c >= R) return -1;
+        int bits = mask[x];
+        if ((bits & (1 << c)) == 0) return -1;
+        return first[x] + Integer.bitCount(bits & ((1 << c) - 1));
+    }
+
+    // true if some word extends the prefix at node x
+    boolean hasChildren(int x) {
+        return (mask[x] & (WORD - 1)) != 0;
+    }
+
+    boolean isWord(int x) {
+        return (mask[x] & WORD) != 0;
+    }
+
+    // id of the word ending at node x, or -1
+    int wordId(int x) {
+        return isWord(x) ? lo[x] : -1;
+    }
+
+    // word with the given id, as a new String
+    String word(int id) {
+        return new String(letters, start[id], start[id + 1] - start[id], StandardCharsets.US_ASCII);
+    }
+
+    // length of the word with the given id
+    int wordLength(int id) {
+        return start[id + 1] - start[id];
+    }
+
+    // ---- Private helpers ----
+
+    private int get(String key) {
+        int x = 0;
+        for (int d = 0; d < key.length() && x >= 0; d++) x = child(x, key.charAt(d));
+        return x;
+    }
+
+    private void collect(int x, StringBuilder prefix, List<String> list) {
+        if (isWord(x)) list.add(prefix.toString());
+        for (int c = 0; c < R; c++) {
+            if ((mask[x] & (1 << c)) != 0) {
+                prefix.append((char) ('A' + c));
+                collect(child(x, (char) ('A' + c)), prefix, list);
+                prefix.deleteCharAt(prefix.length() - 1);
+            }
+        }
+    }
+
+    // true if the header has the magic and version and its array lengths add up to the file size
+    private static boolean isSnapshot(ByteBuffer buf) {
+        if (buf.getInt(0) != SNAPSHOT_MAGIC || buf.getInt(4) != SNAPSHOT_VERSION) return false;
+        int nodes = buf.getInt(8), n = buf.getInt(12), chars = buf.getInt(16);
+        if (nodes < 1 || n < 0 || chars < 0) return false;
+        return SNAPSHOT_HEADER + 4L * (4L * nodes + n + 1) + chars == buf.capacity();
+    }
+
+    // the arrays of a buffer that passed isSnapshot()
+    private static FlatTrieSET fromSnapshot(ByteBuffer buf, String filename) {
+        int nodes = buf.getInt(8), n = buf.getInt(12), chars = buf.getInt(16);
+        buf.position(SNAPSHOT_HEADER);
+        IntBuffer ints = buf.slice().order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+        int[] mask = new int[nodes], first = new int[nodes], count = new int[nodes], lo = new int[nodes];
+        int[] start = new int[n + 1];
+        ints.get(mask).get(first).get(count).get(lo).get(start);
+        byte[] letters = new byte[chars];
+        buf.position(SNAPSHOT_HEADER + 4 * (4 * nodes + n + 1));
+        buf.get(letters);
+        if (count[0] != n || start[n] != chars) throw new IllegalArgumentException("corrupt snapshot: " + filename);
+        return new FlatTrieSET(mask, first, count, lo, letters, start);
+    }
+
+    // whitespace-separated words of a text file, uppercased in place (a-z only)
+    private static String[] readWords(String filename) throws IOException {
+        byte[] text = Files.readAllBytes(Paths.get(filename));
+        List<String> list = new ArrayList<>();
+        int i = 0;
+        while (i < text.length) {
+            while (i < text.length && isSpace(text[i])) i++;
+            int from = i;
+            while (i < text.length && !isSpace(text[i])) {
+                if (text[i] >= 'a' && text[i] <= 'z') text[i] -= 'a' - 'A';
+                i++;
+            }
+            if (i > from) list.add(new String(text, from, i - from, StandardCharsets.ISO_8859_1));
+        }
+        return list.toArray(new String[0]);
+    }
+
+    private static boolean isSpace(byte b) {
+        return b == ' ' || b == '\n' || b == '\r' || b == '\t' || b == '\f';
+    }
+
+    private static boolean isAZ(String w) {
+        for (int i = 0; i < w.length(); i++) {
+            char ch = w.charAt(i);
+            if (ch < 'A' || ch > 'Z') return false;
+        }
+        return true;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.out.println("Usage: java FlatTrieSET <dictionary-file> <snapshot-file>");
+            return;
+        }
+        long t0 = System.nanoTime();
+        FlatTrieSET trie = load(args[0]);
+        long t1 = System.nanoTime();
+        trie.save(args[1]);
+        long t2 = System.nanoTime();
+        FlatTrieSET check = load(args[1]);
+        long t3 = System.nanoTime();
+        if (check.size() != trie.size() || check.nodes() != trie.nodes())
+            throw new IllegalStateException("snapshot does not match the dictionary");
+        System.out.printf("%d words, %d nodes%n", trie.size(), trie.nodes());
+        System.out.printf("build %.1f ms, save %.1f ms, load snapshot %.1f ms%n",
+                          (t1 - t0) / 1e6, (t2 - t1) / 1e6, (t3 - t2) / 1e6);
+    }
+}
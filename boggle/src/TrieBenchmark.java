@@ -0,0 +1,119 @@
+// File: TrieBenchmark.java
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Scanner;
+
+/**
+ * TrieBenchmark: heap footprint and solve throughput of the node-object TrieSET
+ * against the array-backed FlatTrieSET on the same dictionary and random boards.
+ * Usage:
+ *   java TrieBenchmark <dictionary-file> [boards] [seed]
+ */
+public class TrieBenchmark {
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.out.println("Usage: java TrieBenchmark <dictionary-file> [boards] [seed]");
+            return;
+        }
+        List<String> words = new ArrayList<>();
+        try (Scanner sc = new Scanner(new File(args[0]))) {
+            while (sc.hasNext()) words.add(sc.next().toUpperCase());
+        }
+        String[] dictionary = words.toArray(new String[0]);
+        int boards = (args.length > 1) ? Integer.parseInt(args[1]) : 20000;
+        long seed = (args.length > 2) ? Long.parseLong(args[2]) : 42L;
+
+        long before = usedHeap();
+        FlatTrieSET flat = new FlatTrieSET(dictionary);
+        long flatBytes = usedHeap() - before;
+
+        before = usedHeap();
+        TrieSET nodes = new TrieSET();
+        for (String w : dictionary) if (w.length() > 0) nodes.add(w);
+        long nodeBytes = usedHeap() - before;
+
+        System.out.printf("words = %d, trie nodes = %d%n", flat.size(), flat.nodes());
+        System.out.printf("TrieSET     %10d bytes%n", nodeBytes);
+        System.out.printf("FlatTrieSET %10d bytes%n", flatBytes);
+
+        char[][][] grids = randomGrids(boards, seed);
+        for (int round = 0; round < 3; round++) {
+            long t0 = System.nanoTime();
+            long a = 0;
+            for (char[][] g : grids) a += countNodes(nodes, g);
+            long t1 = System.nanoTime();
+            long b = 0;
+            for (char[][] g : grids) b += countFlat(flat, g);
+            long t2 = System.nanoTime();
+            if (a != b) throw new IllegalStateException("tries disagree: " + a + " vs " + b);
+            System.out.printf("round %d: TrieSET %8.0f boards/s, FlatTrieSET %8.0f boards/s (%d words)%n",
+                    round, boards / ((t1 - t0) / 1e9), boards / ((t2 - t1) / 1e9), a);
+        }
+    }
+
+    private static long usedHeap() {
+        Runtime rt = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) System.gc();
+        return rt.totalMemory() - rt.freeMemory();
+    }
+
+    private static char[][][] randomGrids(int boards, long seed) {
+        Random random = new Random(seed);
+        char[][][] grids = new char[boards][4][4];
+        for (char[][] g : grids)
+            for (char[] row : g)
+                for (int j = 0; j < row.length; j++) row[j] = (char) ('A' + random.nextInt(26));
+        return grids;
+    }
+
+    // words found (with repeats) by a node-walking DFS over TrieSET
+    private static long countNodes(TrieSET dict, char[][] g) {
+        if (dict.root() == null) return 0;
+        boolean[][] marked = new boolean[g.length][g[0].length];
+        long total = 0;
+        for (int r = 0; r < g.length; r++)
+            for (int c = 0; c < g[0].length; c++) total += dfs(dict.root(), g, r, c, 0, marked);
+        return total;
+    }
+
+    private static long dfs(TrieSET.Node parent, char[][] g, int r, int c, int len, boolean[][] marked) {
+        char ch = g[r][c];
+        TrieSET.Node x = parent.child(ch);
+        if (x != null && ch == 'Q') x = x.child('U');
+        if (x == null) return 0;
+        len += (ch == 'Q') ? 2 : 1;
+        long total = (x.isWord && len >= 3) ? 1 : 0;
+        marked[r][c] = true;
+        for (int nr = Math.max(0, r - 1); nr <= Math.min(g.length - 1, r + 1); nr++)
+            for (int nc = Math.max(0, c - 1); nc <= Math.min(g[0].length - 1, c + 1); nc++)
+                if (!marked[nr][nc]) total += dfs(x, g, nr, nc, len, marked);
+        marked[r][c] = false;
+        return total;
+    }
+
+    // same DFS over FlatTrieSET
+    private static long countFlat(FlatTrieSET dict, char[][] g) {
+        boolean[][] marked = new boolean[g.length][g[0].length];
+        long total = 0;
+        for (int r = 0; r < g.length; r++)
+            for (int c = 0; c < g[0].length; c++) total += dfs(dict, dict.root(), g, r, c, 0, marked);
+        return total;
+    }
+
+    private static long dfs(FlatTrieSET dict, int parent, char[][] g, int r, int c, int len, boolean[][] marked) {
+        char ch = g[r][c];
+        int x = dict.child(parent, ch);
+        if (x >= 0 && ch == 'Q') x = dict.child(x, 'U');
+        if (x < 0) return 0;
+        len += (ch == 'Q') ? 2 : 1;
+        long total = (dict.isWord(x) && len >= 3) ? 1 : 0;
+        marked[r][c] = true;
+        for (int nr = Math.max(0, r - 1); nr <= Math.min(g.length - 1, r + 1); nr++)
+            for (int nc = Math.max(0, c - 1); nc <= Math.min(g[0].length - 1, c + 1); nc++)
+                if (!marked[nr][nc]) total += dfs(dict, x, g, nr, nc, len, marked);
+        marked[r][c] = false;
+        return total;
+    }
+}
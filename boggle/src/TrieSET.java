@@ -4,36 +4,51 @@ import java.util.List;
 
 /**
  * TrieSET: a basic trie set supporting add, contains, and hasPrefix.
- * - Only supports uppercase A-Z strings.
+ * - Only supports uppercase A-Z strings; keys with any other character are ignored.
+ * - Every node lies on the path to some word, so hasPrefix is a single walk.
+ * - root() and Node are package-private so that BoggleSolver can walk the trie
+ *   one letter at a time instead of re-walking from the root for every prefix.
  */
 public class TrieSET {
     private static final int R = 26; // A-Z
     private Node root;
 
-    private static class Node {
-        Node[] next = new Node[R];
+    static class Node {
+        final Node[] next = new Node[R];
         boolean isWord = false;
+
+        // child for letter ch, or null
+        Node child(char ch) {
+            int idx = ch - 'A';
+            if (idx < 0 || idx >= R) return null;
+            return next[idx];
+        }
     }
 
     // Add a key (word)
     public void add(String key) {
         if (key == null) throw new IllegalArgumentException("null key");
+        // ignore keys with non A-Z letters (defensive) so that no node is created without a word below it
+        for (int d = 0; d < key.length(); d++) {
+            int idx = key.charAt(d) - 'A';
+            if (idx < 0 || idx >= R) return;
+        }
         root = add(root, key, 0);
     }
 
+    // root node, or null if the set is empty
+    Node root() {
+        return root;
+    }
+
     private Node add(Node x, String key, int d) {
         if (x == null) x = new Node();
         if (d == key.length()) {
             x.isWord = true;
             return x;
         }
-        char ch = key.charAt(d);
-        // Expect uppercase A-Z. If 'Q' could be followed by U in dictionary, that's fine.
-        int idx = ch - 'A';
-        if (idx < 0 || idx >= R) {
-            // ignore non A-Z letters (defensive)
-            return x;
-        }
+        // Expect uppercase A-Z (checked by add(String)). If 'Q' could be followed by U in dictionary, that's fine.
+        int idx = key.charAt(d) - 'A';
         x.next[idx] = add(x.next[idx], key, d + 1);
         return x;
     }
@@ -46,28 +61,16 @@ public class TrieSET {
     }
 
     private Node get(Node x, String key, int d) {
-        if (x == null) return null;
-        if (d == key.length()) return x;
-        char ch = key.charAt(d);
-        int idx = ch - 'A';
-        if (idx < 0 || idx >= R) return null;
-        return get(x.next[idx], key, d + 1);
+        for (; x != null && d < key.length(); d++) {
+            x = x.child(key.charAt(d));
+        }
+        return x;
     }
 
     // check whether there exists at least one dictionary word with given prefix
     public boolean hasPrefix(String prefix) {
         if (prefix == null) throw new IllegalArgumentException("null prefix");
-        Node x = get(root, prefix, 0);
-        return x != null && hasAnyDescendant(x);
-    }
-
-    private boolean hasAnyDescendant(Node x) {
-        if (x == null) return false;
-        if (x.isWord) return true;
-        for (int i = 0; i < R; i++) {
-            if (x.next[i] != null && hasAnyDescendant(x.next[i])) return true;
-        }
-        return false;
+        return get(root, prefix, 0) != null;
     }
 
     // optional: collect all keys (for debugging)
@@ -0,0 +1,319 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * BurrowsArchive: block-oriented Burrows-Wheeler compressor with a trailing block index,
+ * so that BurrowsArchiveReader can decode any byte range without inflating the whole file.
+ *
+ * Each block runs the assignment pipeline (BWT, move-to-front, Huffman) on its own bytes.
+ * The Huffman stage is java.util.zip's HUFFMAN_ONLY strategy, which works on byte arrays
+ * (algs4 Huffman is tied to standard input/output).
+ *
+ * Stage selection: each MIN_BLOCK_SIZE chunk of input is sampled (SAMPLES windows of WINDOW bytes)
+ * for order-0 entropy and run ratio, and gets a mode:
+ *   RAW  entropy above RAW_ENTROPY bits/byte (already compressed or random data): stored as is
+ *   RLE  run ratio above RUN_RATIO: runs are shortened (bzip2-style, 4 bytes + count) before BWT,
+ *        which also avoids the suffix sort's slow case on long runs
+ *   BWT  otherwise
+ * Consecutive chunks with the same mode are merged into one block of up to blockSize bytes,
+ * so the block size follows the data. A block whose encoding is larger than its input is stored raw.
+ *
+ * File layout (big-endian):
+ *   block*           each block: byte mode, int rawLength, int codedLength, int first, payload
+ *                    RAW: payload is the bytes themselves
+ *                    BWT: payload is Huffman-coded MTF(BWT(bytes))
+ *                    RLE: payload is Huffman-coded MTF(BWT(RLE(bytes))); codedLength = |RLE(bytes)|
+ *   index            per block: long offset, int storedLength, int rawLength
+ *   trailer          long indexOffset, int blockCount, int MAGIC
+ *
+ * Usage:
+ *   java BurrowsArchive - [blockSize]   (compress standard input to standard output)
+ *   java BurrowsArchive +               (decompress a whole archive; use BurrowsArchiveReader for ranges)
+ */
+public class BurrowsArchive {
+    static final int MAGIC = 0x42575441;          // "BWTA"
+    static final int BLOCK_HEADER = 13;           // mode + rawLength + codedLength + first
+    static final byte RAW = 0;
+    static final byte BWT = 1;
+    static final byte RLE = 2;
+    static final int INDEX_ENTRY = 16;            // offset + storedLength + rawLength
+    static final int TRAILER = 16;                // indexOffset + blockCount + MAGIC
+    public static final int DEFAULT_BLOCK_SIZE = 1 << 20;
+    public static final int MIN_BLOCK_SIZE = 1 << 16;
+
+    private static final int SAMPLES = 64;
+    private static final int WINDOW = 64;
+    private static final double RAW_ENTROPY = 7.5;
+    private static final double RUN_RATIO = 0.3;
+    private static final int RUN_START = 4;       // RLE: a count byte follows this many equal bytes
+
+    // compress in to out in blocks of at most blockSize bytes; returns number of blocks written
+    public static int compress(InputStream in, OutputStream out, int blockSize) throws IOException {
+        if (in == null || out == null) throw new IllegalArgumentException("Argument is null");
+        if (blockSize <= 0) throw new IllegalArgumentException("block size must be positive");
+        DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out));
+        LongList offsets = new LongList();
+        IntList stored = new IntList();
+        IntList raw = new IntList();
+
+        byte[] block = new byte[blockSize];
+        long offset = 0;
+        int len;
+        while ((len = readFully(in, block)) > 0) {
+            int chunks = (len + MIN_BLOCK_SIZE - 1) / MIN_BLOCK_SIZE;
+            byte[] mode = new byte[chunks];
+            for (int c = 0; c < chunks; c++) {
+                int from = c * MIN_BLOCK_SIZE;
+                mode[c] = chooseMode(block, from, Math.min(MIN_BLOCK_SIZE, len - from));
+            }
+            for (int c = 0; c < chunks; ) {
+                int d = c + 1;
+                while (d < chunks && mode[d] == mode[c]) d++;
+                int from = c * MIN_BLOCK_SIZE;
+                int k = Math.min(d * MIN_BLOCK_SIZE, len) - from;
+                byte[] encoded = (mode[c] == RAW) ? storeBlock(block, from, k) : encodeBlock(block, from, k, mode[c]);
+                c = d;
+                data.write(encoded);
+                offsets.add(offset);
+                stored.add(encoded.length);
+                raw.add(k);
+                offset += encoded.length;
+            }
+        }
+
+        for (int i = 0; i < offsets.size(); i++) {
+            data.writeLong(offsets.get(i));
+            data.writeInt(stored.get(i));
+            data.writeInt(raw.get(i));
+        }
+        data.writeLong(offset);
+        data.writeInt(offsets.size());
+        data.writeInt(MAGIC);
+        data.flush();
+        return offsets.size();
+    }
+
+    // decompress a whole archive held in memory to out
+    public static void decompress(byte[] archive, OutputStream out) throws IOException {
+        if (archive == null || out == null) throw new IllegalArgumentException("Argument is null");
+        ByteBuffer buf = ByteBuffer.wrap(archive);
+        if (archive.length < TRAILER || buf.getInt(archive.length - 4) != MAGIC)
+            throw new IllegalArgumentException("not a BurrowsArchive");
+        long indexOffset = buf.getLong(archive.length - TRAILER);
+        int blocks = buf.getInt(archive.length - TRAILER + 8);
+        for (int b = 0; b < blocks; b++) {
+            int entry = (int) indexOffset + b * INDEX_ENTRY;
+            int offset = (int) buf.getLong(entry);
+            int storedLength = buf.getInt(entry + 8);
+            byte[] stored = new byte[storedLength];
+            System.arraycopy(archive, offset, stored, 0, storedLength);
+            out.write(decodeBlock(stored));
+        }
+        out.flush();
+    }
+
+    // pick RAW, RLE or BWT for block[from, from + len) from a sample of its bytes
+    static byte chooseMode(byte[] block, int from, int len) {
+        double[] stats = sample(block, from, len);
+        if (stats[0] > RAW_ENTROPY) return RAW;
+        if (stats[1] > RUN_RATIO) return RLE;
+        return BWT;
+    }
+
+    // {order-0 entropy in bits/byte, fraction of bytes equal to their predecessor} over sampled windows
+    static double[] sample(byte[] block, int from, int len) {
+        int[] freq = new int[256];
+        int total = 0, runs = 0;
+        int stride = Math.max(WINDOW, len / SAMPLES);
+        for (int start = from; start < from + len; start += stride) {
+            int end = Math.min(from + len, start + WINDOW);
+            for (int i = start; i < end; i++) {
+                freq[block[i] & 0xFF]++;
+                if (i > start && block[i] == block[i - 1]) runs++;
+                total++;
+            }
+        }
+        double entropy = 0.0;
+        for (int f : freq) {
+            if (f == 0) continue;
+            double p = (double) f / total;
+            entropy -= p * Math.log(p) / Math.log(2);
+        }
+        return new double[]{entropy, (double) runs / total};
+    }
+
+    // encode block[from, from + len) into a self-describing stored block (mode BWT or RLE)
+    static byte[] encodeBlock(byte[] block, int from, int len, byte mode) {
+        byte[] a = (mode == RLE) ? runLengthEncode(block, from, len)
+                 : (from == 0 && len == block.length) ? block : Arrays.copyOfRange(block, from, from + len);
+        int m = a.length;
+        byte[] last = new byte[m];
+        int first = BurrowsWheeler.transform(a, last);
+        byte[] mtf = new byte[m];
+        MoveToFront.encode(last, mtf);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(m / 2 + 64);
+        writeHeader(bytes, mode, len, m, first);
+        Deflater huffman = new Deflater(Deflater.BEST_SPEED);
+        huffman.setStrategy(Deflater.HUFFMAN_ONLY);
+        huffman.setInput(mtf);
+        huffman.finish();
+        byte[] buf = new byte[8192];
+        while (!huffman.finished()) {
+            int k = huffman.deflate(buf);
+            bytes.write(buf, 0, k);
+        }
+        huffman.end();
+        if (bytes.size() > BLOCK_HEADER + len) return storeBlock(block, from, len);
+        return bytes.toByteArray();
+    }
+
+    // store block[from, from + len) as is
+    static byte[] storeBlock(byte[] block, int from, int len) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(BLOCK_HEADER + len);
+        writeHeader(bytes, RAW, len, len, 0);
+        bytes.write(block, from, len);
+        return bytes.toByteArray();
+    }
+
+    private static void writeHeader(ByteArrayOutputStream bytes, byte mode, int len, int coded, int first) {
+        DataOutputStream header = new DataOutputStream(bytes);
+        try {
+            header.writeByte(mode);
+            header.writeInt(len);
+            header.writeInt(coded);
+            header.writeInt(first);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // decode a stored block produced by encodeBlock()
+    static byte[] decodeBlock(byte[] stored) {
+        if (stored.length < BLOCK_HEADER) throw new IllegalArgumentException("truncated block");
+        ByteBuffer buf = ByteBuffer.wrap(stored);
+        byte mode = buf.get(0);
+        int len = buf.getInt(1);
+        int coded = buf.getInt(5);
+        int first = buf.getInt(9);
+        if (mode == RAW) return Arrays.copyOfRange(stored, BLOCK_HEADER, BLOCK_HEADER + len);
+        if (mode != BWT && mode != RLE) throw new IllegalArgumentException("unknown block mode " + mode);
+
+        byte[] mtf = new byte[coded];
+        Inflater huffman = new Inflater();
+        huffman.setInput(stored, BLOCK_HEADER, stored.length - BLOCK_HEADER);
+        try {
+            int got = 0;
+            while (got < coded) {
+                int k = huffman.inflate(mtf, got, coded - got);
+                if (k == 0 && (huffman.finished() || huffman.needsInput()))
+                    throw new IllegalArgumentException("truncated block");
+                got += k;
+            }
+        } catch (DataFormatException e) {
+            throw new IllegalArgumentException("corrupt block", e);
+        } finally {
+            huffman.end();
+        }
+
+        byte[] last = new byte[coded];
+        MoveToFront.decode(mtf, last);
+        byte[] out = new byte[coded];
+        BurrowsWheeler.inverseTransform(first, last, out);
+        return (mode == RLE) ? runLengthDecode(out, len) : out;
+    }
+
+    // runs of RUN_START..RUN_START+255 equal bytes become RUN_START bytes and a count of the rest
+    static byte[] runLengthEncode(byte[] a, int from, int len) {
+        byte[] out = new byte[len + len / RUN_START + 1];
+        int k = 0;
+        int end = from + len;
+        for (int i = from; i < end; ) {
+            byte c = a[i];
+            int run = 1;
+            while (i + run < end && a[i + run] == c && run < RUN_START + 255) run++;
+            for (int j = 0; j < Math.min(run, RUN_START); j++) out[k++] = c;
+            if (run >= RUN_START) out[k++] = (byte) (run - RUN_START);
+            i += run;
+        }
+        return Arrays.copyOf(out, k);
+    }
+
+    // inverse of runLengthEncode(); len is the decoded length
+    static byte[] runLengthDecode(byte[] a, int len) {
+        byte[] out = new byte[len];
+        int k = 0, equal = 0;
+        byte prev = 0;
+        for (int i = 0; i < a.length; ) {
+            byte c = a[i++];
+            equal = (equal > 0 && c == prev) ? equal + 1 : 1;
+            prev = c;
+            out[k++] = c;
+            if (equal == RUN_START) {
+                int extra = a[i++] & 0xFF;
+                for (int j = 0; j < extra; j++) out[k++] = c;
+                equal = 0;
+            }
+        }
+        return out;
+    }
+
+    // fill buf from in as far as possible; returns bytes read (0 at end of stream)
+    private static int readFully(InputStream in, byte[] buf) throws IOException {
+        int len = 0;
+        while (len < buf.length) {
+            int k = in.read(buf, len, buf.length - len);
+            if (k < 0) break;
+            len += k;
+        }
+        return len;
+    }
+
+    // minimal growable primitive lists for the index
+    private static class LongList {
+        private long[] a = new long[16];
+        private int size;
+        void add(long x) {
+            if (size == a.length) a = Arrays.copyOf(a, 2 * size);
+            a[size++] = x;
+        }
+        long get(int i) { return a[i]; }
+        int size() { return size; }
+    }
+
+    private static class IntList {
+        private int[] a = new int[16];
+        private int size;
+        void add(int x) {
+            if (size == a.length) a = Arrays.copyOf(a, 2 * size);
+            a[size++] = x;
+        }
+        int get(int i) { return a[i]; }
+    }
+
+    // main: args[0] "-" => compress [blockSize]; "+" => decompress
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            throw new IllegalArgumentException("usage: BurrowsArchive - [blockSize] (compress) or + (decompress)");
+        }
+        if (args[0].equals("-")) {
+            int blockSize = (args.length > 1) ? Integer.parseInt(args[1]) : DEFAULT_BLOCK_SIZE;
+            compress(new BufferedInputStream(System.in), System.out, blockSize);
+        } else if (args[0].equals("+")) {
+            decompress(System.in.readAllBytes(), new BufferedOutputStream(System.out));
+        } else {
+            throw new IllegalArgumentException("first arg must be '-' or '+'");
+        }
+    }
+}
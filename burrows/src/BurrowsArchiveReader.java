@@ -0,0 +1,121 @@
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+
+/**
+ * BurrowsArchiveReader: random-access reads from a BurrowsArchive file.
+ * Only the trailing index is loaded on open; read(position, length) seeks to
+ * and decodes just the blocks that cover the requested range.
+ * The most recently decoded block is kept, so sequential small reads decode each block once.
+ *
+ * Usage:
+ *   java BurrowsArchiveReader archive offset length   (writes the byte range to standard output)
+ */
+public class BurrowsArchiveReader implements Closeable {
+    private final RandomAccessFile file;
+    private final int blocks;
+    private final long[] offset;    // offset[b] = file position of block b
+    private final int[] stored;     // stored[b] = bytes block b occupies in the file
+    private final long[] start;     // start[b] = uncompressed position of block b's first byte; start[blocks] = length
+
+    private int cachedBlock = -1;
+    private byte[] cached;
+
+    public BurrowsArchiveReader(String filename) throws IOException {
+        if (filename == null) throw new IllegalArgumentException("filename is null");
+        file = new RandomAccessFile(filename, "r");
+        try {
+            long size = file.length();
+            if (size < BurrowsArchive.TRAILER) throw new IllegalArgumentException("not a BurrowsArchive: " + filename);
+            file.seek(size - BurrowsArchive.TRAILER);
+            long indexOffset = file.readLong();
+            blocks = file.readInt();
+            if (file.readInt() != BurrowsArchive.MAGIC) throw new IllegalArgumentException("not a BurrowsArchive: " + filename);
+
+            offset = new long[blocks];
+            stored = new int[blocks];
+            start = new long[blocks + 1];
+            byte[] index = new byte[blocks * BurrowsArchive.INDEX_ENTRY];
+            file.seek(indexOffset);
+            file.readFully(index);
+            ByteBuffer buf = ByteBuffer.wrap(index);
+            for (int b = 0; b < blocks; b++) {
+                offset[b] = buf.getLong();
+                stored[b] = buf.getInt();
+                start[b + 1] = start[b] + buf.getInt();
+            }
+        } catch (IOException | RuntimeException e) {
+            file.close();
+            throw e;
+        }
+    }
+
+    // total uncompressed length
+    public long length() {
+        return start[blocks];
+    }
+
+    public int blockCount() {
+        return blocks;
+    }
+
+    // uncompressed bytes [position, position + length)
+    public byte[] read(long position, int length) throws IOException {
+        if (position < 0 || length < 0 || position + length > length())
+            throw new IllegalArgumentException("range out of bounds: " + position + "+" + length);
+        byte[] out = new byte[length];
+        int copied = 0;
+        int b = blockOf(position);
+        while (copied < length) {
+            byte[] block = block(b);
+            int from = (int) (position + copied - start[b]);
+            int k = Math.min(block.length - from, length - copied);
+            System.arraycopy(block, from, out, copied, k);
+            copied += k;
+            b++;
+        }
+        return out;
+    }
+
+    @Override
+    public void close() throws IOException {
+        file.close();
+    }
+
+    // index of the block containing uncompressed position pos
+    private int blockOf(long pos) {
+        int lo = 0, hi = blocks - 1;
+        while (lo < hi) {
+            int mid = (lo + hi + 1) >>> 1;
+            if (start[mid] <= pos) lo = mid;
+            else hi = mid - 1;
+        }
+        return lo;
+    }
+
+    private byte[] block(int b) throws IOException {
+        if (b != cachedBlock) {
+            byte[] bytes = new byte[stored[b]];
+            file.seek(offset[b]);
+            file.readFully(bytes);
+            cached = BurrowsArchive.decodeBlock(bytes);
+            cachedBlock = b;
+        }
+        return cached;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3) {
+            System.out.println("Usage: java BurrowsArchiveReader archive offset length");
+            return;
+        }
+        try (BurrowsArchiveReader reader = new BurrowsArchiveReader(args[0])) {
+            OutputStream out = new BufferedOutputStream(System.out);
+            out.write(reader.read(Long.parseLong(args[1]), Integer.parseInt(args[2])));
+            out.flush();
+        }
+    }
+}
@@ -1,31 +1,34 @@
 import edu.princeton.cs.algs4.BinaryStdIn;
 import edu.princeton.cs.algs4.BinaryStdOut;
 
+import java.util.Arrays;
+
 /**
  * Burrows-Wheeler transform and inverse transform.
  *
  * transform:
- *   read entire input as a String s (sequence of chars),
- *   build CircularSuffixArray on s,
- *   write int 'first' (32 bits), then write last column characters in order (each 8 bits)
+ *   read entire input into a byte[] a (no String or char[] copy),
+ *   build CircularSuffixArray on a (int[] index, so about 5n bytes at peak),
+ *   write int 'first' (32 bits), then write last column bytes in order (each 8 bits)
  *
  * inverseTransform:
- *   read int first (32 bits), read n chars (each 8 bits) to build t[],
+ *   read int first (32 bits), read n bytes (each 8 bits) to build t[],
  *   construct next[] using key-indexed counting,
- *   follow next[] starting at first to output original string.
+ *   follow next[] starting at first to output original bytes.
  */
 public class BurrowsWheeler {
+    private static final Metrics.Throughput TRANSFORM = Metrics.throughput("bwt.transform");
+    private static final Metrics.Throughput INVERSE = Metrics.throughput("bwt.inverseTransform");
 
     // apply Burrows-Wheeler transform
     public static void transform() {
-        // read all input as bytes -> build char array
-        StringBuilder sb = new StringBuilder();
+        // read all input as bytes into a growable array; the suffix array sorts the filled prefix in place
+        byte[] a = new byte[1 << 16];
+        int n = 0;
         while (!BinaryStdIn.isEmpty()) {
-            char c = BinaryStdIn.readChar(); // reads 8-bit byte as char
-            sb.append(c);
+            if (n == a.length) a = Arrays.copyOf(a, 2 * n);
+            a[n++] = (byte) BinaryStdIn.readChar(); // reads 8-bit byte
         }
-        String s = sb.toString();
-        int n = s.length();
         if (n == 0) {
             // write first = 0 and nothing else
             BinaryStdOut.write(0, 32);
@@ -33,7 +36,7 @@ public class BurrowsWheeler {
             return;
         }
 
-        CircularSuffixArray csa = new CircularSuffixArray(s);
+        CircularSuffixArray csa = new CircularSuffixArray(a, 0, n);
         // find first: row where original suffix at 0 appears
         int first = -1;
         for (int i = 0; i < n; i++) {
@@ -41,11 +44,10 @@ public class BurrowsWheeler {
         }
         BinaryStdOut.write(first, 32);
 
-        // write last column: for each sorted suffix at position i, the preceding character is s[(index[i]+n-1)%n]
+        // write last column: for each sorted suffix at position i, the preceding byte is a[(index[i]+n-1)%n]
         for (int i = 0; i < n; i++) {
             int idx = csa.index(i);
-            char last = s.charAt((idx + n - 1) % n);
-            BinaryStdOut.write(last);
+            BinaryStdOut.write(a[(idx + n - 1) % n]);
         }
         BinaryStdOut.flush();
     }
@@ -57,43 +59,65 @@ public class BurrowsWheeler {
         int first = BinaryStdIn.readInt(32);
 
         // read remaining bytes into t[]
-        java.util.List<Character> list = new java.util.ArrayList<>();
+        byte[] t = new byte[1 << 16];
+        int n = 0;
         while (!BinaryStdIn.isEmpty()) {
-            char c = BinaryStdIn.readChar();
-            list.add(c);
+            if (n == t.length) t = Arrays.copyOf(t, 2 * n);
+            t[n++] = (byte) BinaryStdIn.readChar();
         }
-        int n = list.size();
         if (n == 0) {
             BinaryStdOut.flush();
             return;
         }
-        char[] t = new char[n];
-        for (int i = 0; i < n; i++) t[i] = list.get(i);
+        t = Arrays.copyOf(t, n);
+
+        byte[] out = new byte[n];
+        inverseTransform(first, t, out);
+        for (int i = 0; i < n; i++) BinaryStdOut.write(out[i]);
+        BinaryStdOut.flush();
+    }
+
+    // Burrows-Wheeler transform of a[] into last[] (last.length >= a.length); returns first
+    public static int transform(byte[] a, byte[] last) {
+        if (a == null || last == null) throw new IllegalArgumentException("Argument is null");
+        if (last.length < a.length) throw new IllegalArgumentException("output array shorter than input");
+        int n = a.length;
+        if (n == 0) return 0;
+        long start = Metrics.ENABLED ? System.nanoTime() : 0;
+        CircularSuffixArray csa = new CircularSuffixArray(a);
+        int first = -1;
+        for (int i = 0; i < n; i++) {
+            int idx = csa.index(i);
+            if (idx == 0) first = i;
+            last[i] = a[(idx + n - 1) % n];
+        }
+        if (Metrics.ENABLED) TRANSFORM.record(n, start);
+        return first;
+    }
+
+    // inverse of transform(byte[], byte[]): t[] is the last column, out[] receives the original bytes
+    public static void inverseTransform(int first, byte[] t, byte[] out) {
+        if (t == null || out == null) throw new IllegalArgumentException("Argument is null");
+        if (out.length < t.length) throw new IllegalArgumentException("output array shorter than input");
+        int n = t.length;
+        if (n == 0) return;
+        if (first < 0 || first >= n) throw new IllegalArgumentException("first out of range: " + first);
+        long start = Metrics.ENABLED ? System.nanoTime() : 0;
 
-        // key-indexed counting to compute starting positions for each char (alphabet size R = 256)
         int R = 256;
         int[] count = new int[R + 1];
-        for (int i = 0; i < n; i++) count[((int) t[i]) + 1]++;
-
+        for (int i = 0; i < n; i++) count[(t[i] & 0xFF) + 1]++;
         for (int r = 0; r < R; r++) count[r + 1] += count[r];
 
-        // next array
         int[] next = new int[n];
-        // for stable mapping: for each i from 0..n-1, place i at position count[t[i]] and increment count[t[i]]
-        for (int i = 0; i < n; i++) {
-            int c = (int) t[i];
-            int pos = count[c]++;
-            next[pos] = i;
-        }
+        for (int i = 0; i < n; i++) next[count[t[i] & 0xFF]++] = i;
 
-        // now reconstruct by starting at next[first]
         int idx = first;
         for (int i = 0; i < n; i++) {
-            char c = t[idx];
-            BinaryStdOut.write(c);
             idx = next[idx];
+            out[i] = t[idx];
         }
-        BinaryStdOut.flush();
+        if (Metrics.ENABLED) INVERSE.record(n, start);
     }
 
     // main: args[0] "-" => transform; "+" => inverseTransform
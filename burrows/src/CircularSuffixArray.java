@@ -1,43 +1,45 @@
-import java.util.Arrays;
-import java.util.Comparator;
-
 /**
- * CircularSuffixArray: builds sorted array of circular suffixes of a String s.
- * Constructor is O(n log n) using Java sort with a comparator that compares cyclically.
+ * CircularSuffixArray: builds sorted array of circular suffixes of a byte sequence.
+ *
+ * The sorted order is kept in a single int[]; the text is only read during construction
+ * and is not copied, so peak memory is the caller's n-byte text plus the 4n-byte index
+ * (about 5n bytes in total) with no per-element objects.
+ * Construction uses 3-way radix quicksort on the circular suffixes (iterating rather than
+ * recursing on the equal partition), with insertion sort for small subarrays.
+ * Radix sorting stops at DEPTH bytes; groups of suffixes still equal at that depth
+ * (long runs, periodic or heavily repeated text) are finished by prefix doubling on
+ * group ranks. Only such inputs allocate the 4n-byte rank array, which also records the
+ * groups, so their peak is 9n bytes; the groups are sorted in place and keep them O(n log n).
  */
 public class CircularSuffixArray {
+    private static final int CUTOFF = 15;  // insertion sort below this size
+    private static final int DEPTH = 256;  // radix sort depth before switching to doubling
+
     private final int n;
-    private final Integer[] index; // index[i] = starting index in original string of i-th sorted suffix
-    private final char[] sChars;
+    private final int[] index; // index[i] = starting index in original string of i-th sorted suffix
+    private int[] rank;        // group ranks for doubling, allocated only when a group is deferred
 
-    // circular suffix array of s
+    // circular suffix array of s (extended ASCII: every char must be < 256)
     public CircularSuffixArray(String s) {
-        if (s == null) throw new IllegalArgumentException("null string");
-        n = s.length();
-        sChars = s.toCharArray();
-        index = new Integer[n];
-        for (int i = 0; i < n; i++) index[i] = i;
+        this(toBytes(s));
+    }
 
-        // comparator: compare suffixes starting at a and b by comparing up to n characters cyclically
-        Comparator<Integer> cmp = new Comparator<Integer>() {
-            @Override
-            public int compare(Integer a, Integer b) {
-                if (a.equals(b)) return 0;
-                int i = a;
-                int j = b;
-                for (int k = 0; k < n; k++) {
-                    char ca = sChars[i];
-                    char cb = sChars[j];
-                    if (ca < cb) return -1;
-                    if (ca > cb) return 1;
-                    i++; if (i == n) i = 0;
-                    j++; if (j == n) j = 0;
-                }
-                return 0; // equal (should not happen unless all chars same)
-            }
-        };
+    // circular suffix array of the bytes a[]
+    public CircularSuffixArray(byte[] a) {
+        this(a, 0, checkNotNull(a).length);
+    }
 
-        Arrays.sort(index, cmp);
+    // circular suffix array of the slice a[offset, offset + length); a is not copied or retained
+    public CircularSuffixArray(byte[] a, int offset, int length) {
+        if (a == null) throw new IllegalArgumentException("null array");
+        if (offset < 0 || length < 0 || offset + length > a.length)
+            throw new IllegalArgumentException("slice out of range");
+        n = length;
+        index = new int[n];
+        for (int i = 0; i < n; i++) index[i] = i;
+        if (n > 1) sort(a, offset, 0, n - 1, 0);
+        if (rank != null) doubling();
+        rank = null;
     }
 
     // length of s
@@ -51,6 +53,196 @@ public class CircularSuffixArray {
         return index[i];
     }
 
+    // ---- Private helpers ----
+
+    // d-th byte of the circular suffix starting at i, as 0..255
+    private int charAt(byte[] a, int offset, int i, int d) {
+        int k = i + d;
+        if (k >= n) k -= n;
+        return a[offset + k] & 0xFF;
+    }
+
+    // 3-way radix quicksort of index[lo..hi], all sharing their first d bytes
+    private void sort(byte[] a, int offset, int lo, int hi, int d) {
+        while (hi > lo && d < n) {
+            if (d == DEPTH) {
+                defer(lo, hi);
+                return;
+            }
+            if (hi - lo < CUTOFF) {
+                insertion(a, offset, lo, hi, d);
+                return;
+            }
+            swap(lo, medianOf3(a, offset, lo, lo + (hi - lo) / 2, hi, d));
+            int lt = lo, gt = hi;
+            int v = charAt(a, offset, index[lo], d);
+            int i = lo + 1;
+            while (i <= gt) {
+                int t = charAt(a, offset, index[i], d);
+                if (t < v) swap(lt++, i++);
+                else if (t > v) swap(i, gt--);
+                else i++;
+            }
+            sort(a, offset, lo, lt - 1, d);
+            sort(a, offset, gt + 1, hi, d);
+            lo = lt;
+            hi = gt;
+            d++;
+        }
+    }
+
+    // insertion sort on the first DEPTH bytes; runs still equal at that depth are deferred
+    private void insertion(byte[] a, int offset, int lo, int hi, int d) {
+        for (int i = lo + 1; i <= hi; i++) {
+            for (int j = i; j > lo && compare(a, offset, index[j], index[j - 1], d) < 0; j--) {
+                swap(j, j - 1);
+            }
+        }
+        int start = lo;
+        for (int i = lo + 1; i <= hi + 1; i++) {
+            if (i > hi || compare(a, offset, index[i - 1], index[i], d) != 0) {
+                if (i - 1 > start) defer(start, i - 1);
+                start = i;
+            }
+        }
+    }
+
+    // compare the circular suffixes at i and j on bytes d..DEPTH-1, given that they share d bytes
+    private int compare(byte[] a, int offset, int i, int j, int d) {
+        int limit = Math.min(n, DEPTH);
+        for (int k = d; k < limit; k++) {
+            int ci = charAt(a, offset, i, k);
+            int cj = charAt(a, offset, j, k);
+            if (ci != cj) return ci - cj;
+        }
+        return 0;
+    }
+
+    // mark index[lo..hi] as equal in their first DEPTH bytes: until doubling() starts, rank holds
+    // hi + 1 for their suffixes and 0 for all others
+    private void defer(int lo, int hi) {
+        if (rank == null) rank = new int[n];
+        for (int k = lo; k <= hi; k++) rank[index[k]] = hi + 1;
+    }
+
+    // finish deferred groups by prefix doubling: suffixes equal in their first h bytes
+    // are ordered by the group rank of the suffix h bytes later (Larsson-Sadakane style)
+    private void doubling() {
+        // rank[i] = last position in index[] of the group holding suffix i, so a group
+        // starting at lo is index[lo..rank[index[lo]]] and needs no separate list
+        for (int k = 0; k < n; k++) {
+            int r = rank[index[k]];
+            rank[index[k]] = (r == 0) ? k : r - 1;
+        }
+        boolean tied = true;
+        for (long h = DEPTH; tied && h < n; h *= 2) {
+            tied = false;
+            for (int lo = 0; lo < n; ) {
+                int hi = rank[index[lo]];
+                if (hi > lo) {
+                    sortByRank((int) h, lo, hi);
+                    if (split((int) h, lo, hi)) tied = true;
+                }
+                lo = hi + 1;
+            }
+        }
+    }
+
+    // rank of the suffix h bytes after suffix i
+    private int rankAfter(int i, int h) {
+        return rank[(i < n - h) ? i + h : i - (n - h)];
+    }
+
+    // 3-way quicksort of the group index[lo..hi] on rankAfter(); the group's own ranks
+    // are not changed until split(), so every key stays fixed while it is sorted
+    private void sortByRank(int h, int lo, int hi) {
+        while (hi - lo >= CUTOFF) {
+            // pivot from the quartiles: partitioning leaves the few keys that differ from a
+            // large tie near the ends, where a first/middle/last sample would keep finding them
+            int q = (hi - lo) / 4;
+            int a = rankAfter(index[lo + q], h), b = rankAfter(index[lo + 2 * q], h), c = rankAfter(index[hi - q], h);
+            int v = Math.max(Math.min(a, b), Math.min(Math.max(a, b), c));
+            int lt = lo, gt = hi, i = lo;
+            while (i <= gt) {
+                int t = rankAfter(index[i], h);
+                if (t < v) swap(lt++, i++);
+                else if (t > v) swap(i, gt--);
+                else i++;
+            }
+            // recurse into the smaller side, loop on the larger
+            if (lt - lo < hi - gt) {
+                sortByRank(h, lo, lt - 1);
+                lo = gt + 1;
+            } else {
+                sortByRank(h, gt + 1, hi);
+                hi = lt - 1;
+            }
+        }
+        for (int i = lo + 1; i <= hi; i++) {
+            for (int j = i; j > lo && rankAfter(index[j], h) < rankAfter(index[j - 1], h); j--) {
+                swap(j, j - 1);
+            }
+        }
+    }
+
+    // give each run of equal keys in the sorted group index[lo..hi] the rank of its last
+    // position; returns true if some run still holds more than one suffix.
+    // A key inside lo..hi belongs to this group and reads as hi, its value before the split,
+    // since ranks of the runs already split have moved into lo..hi
+    private boolean split(int h, int lo, int hi) {
+        boolean tied = false;
+        int start = lo;
+        int key = hi;
+        for (int k = lo; k <= hi + 1; k++) {
+            int next = -1;
+            if (k <= hi) {
+                next = rankAfter(index[k], h);
+                if (next >= lo && next <= hi) next = hi;
+            }
+            if (k > lo && next != key) {
+                for (int j = start; j < k; j++) rank[index[j]] = k - 1;
+                if (k - 1 > start) tied = true;
+                start = k;
+            }
+            key = next;
+        }
+        return tied;
+    }
+
+    private int medianOf3(byte[] a, int offset, int i, int j, int k, int d) {
+        int ci = charAt(a, offset, index[i], d);
+        int cj = charAt(a, offset, index[j], d);
+        int ck = charAt(a, offset, index[k], d);
+        if (ci < cj) {
+            if (cj < ck) return j;
+            return (ci < ck) ? k : i;
+        }
+        if (ci < ck) return i;
+        return (cj < ck) ? k : j;
+    }
+
+    private void swap(int i, int j) {
+        int t = index[i];
+        index[i] = index[j];
+        index[j] = t;
+    }
+
+    private static byte[] checkNotNull(byte[] a) {
+        if (a == null) throw new IllegalArgumentException("null array");
+        return a;
+    }
+
+    private static byte[] toBytes(String s) {
+        if (s == null) throw new IllegalArgumentException("null string");
+        byte[] a = new byte[s.length()];
+        for (int i = 0; i < a.length; i++) {
+            char c = s.charAt(i);
+            if (c > 255) throw new IllegalArgumentException("not an extended ASCII char at " + i);
+            a[i] = (byte) c;
+        }
+        return a;
+    }
+
     // unit testing
     public static void main(String[] args) {
         String s = (args.length == 0) ? "ABRACADABRA!" : args[0];
@@ -0,0 +1,310 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+/**
+ * FMIndex: substring count/locate over the Burrows-Wheeler transform of a text,
+ * without keeping the text itself.
+ *
+ * Built from BWT output (last column + first, as written by BurrowsWheeler), it stores:
+ *   - the last column (n bytes)
+ *   - occurrence counts over the bytes that actually occur, sampled every BLOCK positions
+ *     (16-bit counts relative to a 32-bit superblock count every SUPER positions)
+ *   - suffix-array values of rows whose text position is a multiple of SAMPLE,
+ *     found through a bitvector with a rank directory
+ *   - the first and last EDGE bytes of the text, so matches that wrap around the
+ *     end of the circular text can be discounted
+ *
+ * count(p) is O(|p| * BLOCK) byte scans, locate(p) adds O(SAMPLE) LF steps per match.
+ * The BWT rotations are circular, so the text must not be periodic (a repetition u^k, k > 1).
+ *
+ * Usage:
+ *   java FMIndex build text.txt text.fmi
+ *   java FMIndex search text.fmi pattern ...
+ */
+public class FMIndex {
+    private static final int MAGIC = 0x464d4958;  // "FMIX"
+    private static final int BLOCK = 256;
+    private static final int SUPER = 1 << 16;     // multiple of BLOCK, keeps block counts below 2^16
+    private static final int SAMPLE = 32;
+    private static final int EDGE = 1024;
+
+    private final int n;
+    private final byte[] bwt;
+    private final int sigma;
+    private final int[] code;         // code[byte] = dense symbol id, or -1 if the byte never occurs
+    private final byte[] sym;         // sym[c] = byte with symbol id c
+    private final int[] C;            // C[c] = number of symbols smaller than c
+    private final int[] superCount;   // superCount[s * sigma + c] = occurrences of c in bwt[0, s * SUPER)
+    private final char[] blockCount;  // blockCount[b * sigma + c] = occurrences of c in bwt[superblock start, b * BLOCK)
+    private final long[] marked;      // bit i set if row i has a sampled suffix-array value
+    private final int[] markedRank;   // markedRank[w] = set bits in marked[0, w)
+    private final int[] samples;      // samples[rank of row] = text position of row
+    private final byte[] head;        // first min(n, EDGE) bytes of the text
+    private final byte[] tail;        // last min(n, EDGE) bytes of the text
+
+    // build the index from the last column of the BWT and the row of the original text
+    public FMIndex(byte[] last, int first) {
+        if (last == null) throw new IllegalArgumentException("Argument is null");
+        n = last.length;
+        if (n > 0 && (first < 0 || first >= n)) throw new IllegalArgumentException("first out of range: " + first);
+        bwt = last.clone();
+
+        code = new int[256];
+        int[] freq = new int[256];
+        for (int i = 0; i < n; i++) freq[bwt[i] & 0xFF]++;
+        int s = 0;
+        for (int r = 0; r < 256; r++) code[r] = (freq[r] > 0) ? s++ : -1;
+        sigma = s;
+        sym = new byte[sigma];
+        for (int r = 0; r < 256; r++) if (code[r] >= 0) sym[code[r]] = (byte) r;
+        C = new int[sigma + 1];
+        for (int r = 0; r < 256; r++) if (code[r] >= 0) C[code[r] + 1] = freq[r];
+        for (int c = 0; c < sigma; c++) C[c + 1] += C[c];
+
+        superCount = new int[(n / SUPER + 1) * sigma];
+        blockCount = new char[(n / BLOCK + 1) * sigma];
+        int[] running = new int[sigma];
+        int[] base = new int[sigma];
+        for (int i = 0; i <= n; i++) {
+            if (i % SUPER == 0) {
+                System.arraycopy(running, 0, superCount, (i / SUPER) * sigma, sigma);
+                System.arraycopy(running, 0, base, 0, sigma);
+            }
+            if (i % BLOCK == 0) {
+                int at = (i / BLOCK) * sigma;
+                for (int c = 0; c < sigma; c++) blockCount[at + c] = (char) (running[c] - base[c]);
+            }
+            if (i < n) running[code[bwt[i] & 0xFF]]++;
+        }
+
+        // walk LF from the row of text position 0 to recover positions n-1, n-2, ..., 1
+        marked = new long[(n >>> 6) + 1];
+        markedRank = new int[marked.length + 1];
+        samples = new int[(n + SAMPLE - 1) / SAMPLE];
+        int[] sampleRow = new int[samples.length];
+        head = new byte[Math.min(n, EDGE)];
+        tail = new byte[Math.min(n, EDGE)];
+        int row = first;
+        for (int pos = n; pos > 0; pos--) {
+            int t = pos % n;
+            if (t % SAMPLE == 0) {
+                marked[row >>> 6] |= 1L << row;
+                sampleRow[t / SAMPLE] = row;
+            }
+            byte b = bwt[row];                     // text[t - 1]
+            if (pos - 1 < head.length) head[pos - 1] = b;
+            if (pos - 1 >= n - tail.length) tail[pos - 1 - (n - tail.length)] = b;
+            row = lf(row);
+            if (row == first && pos > 1) throw new IllegalArgumentException("periodic text is not supported");
+        }
+        for (int w = 0; w < marked.length; w++) markedRank[w + 1] = markedRank[w] + Long.bitCount(marked[w]);
+        for (int k = 0; k < samples.length; k++) samples[rankMarked(sampleRow[k])] = k * SAMPLE;
+    }
+
+    // read an index written by save()
+    private FMIndex(DataInputStream in) throws IOException {
+        if (in.readInt() != MAGIC) throw new IllegalArgumentException("not an FMIndex file");
+        n = in.readInt();
+        sigma = in.readInt();
+        bwt = readBytes(in, n);
+        code = new int[256];
+        Arrays.fill(code, -1);
+        sym = readBytes(in, sigma);
+        for (int c = 0; c < sigma; c++) code[sym[c] & 0xFF] = c;
+        C = readInts(in, sigma + 1);
+        superCount = readInts(in, (n / SUPER + 1) * sigma);
+        blockCount = new char[(n / BLOCK + 1) * sigma];
+        for (int i = 0; i < blockCount.length; i++) blockCount[i] = in.readChar();
+        marked = new long[(n >>> 6) + 1];
+        for (int i = 0; i < marked.length; i++) marked[i] = in.readLong();
+        markedRank = readInts(in, marked.length + 1);
+        samples = readInts(in, (n + SAMPLE - 1) / SAMPLE);
+        head = readBytes(in, Math.min(n, EDGE));
+        tail = readBytes(in, Math.min(n, EDGE));
+    }
+
+    // load an index written by save()
+    public static FMIndex load(String filename) throws IOException {
+        if (filename == null) throw new IllegalArgumentException("filename is null");
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(filename), 1 << 16))) {
+            return new FMIndex(in);
+        }
+    }
+
+    // write the index to a file
+    public void save(String filename) throws IOException {
+        if (filename == null) throw new IllegalArgumentException("filename is null");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(filename), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(n);
+            out.writeInt(sigma);
+            out.write(bwt);
+            out.write(sym);
+            for (int x : C) out.writeInt(x);
+            for (int x : superCount) out.writeInt(x);
+            for (char x : blockCount) out.writeChar(x);
+            for (long x : marked) out.writeLong(x);
+            for (int x : markedRank) out.writeInt(x);
+            for (int x : samples) out.writeInt(x);
+            out.write(head);
+            out.write(tail);
+        }
+    }
+
+    // build the index directly from a text
+    public static FMIndex build(byte[] text) {
+        if (text == null) throw new IllegalArgumentException("Argument is null");
+        byte[] last = new byte[text.length];
+        int first = BurrowsWheeler.transform(text, last);
+        return new FMIndex(last, first);
+    }
+
+    // length of the indexed text
+    public int length() {
+        return n;
+    }
+
+    // number of occurrences of pattern in the text
+    public int count(byte[] pattern) {
+        int[] range = range(pattern);
+        int total = range[1] - range[0];
+        if (total == 0 || pattern.length <= 1) return total;
+        if (pattern.length - 1 > EDGE || pattern.length > n) {
+            int k = 0;
+            for (int p : locateCircular(range, pattern.length)) if (p + pattern.length <= n) k++;
+            return k;
+        }
+        return total - wrappingMatches(pattern);
+    }
+
+    // text positions of all occurrences of pattern, in no particular order
+    public int[] locate(byte[] pattern) {
+        return locateCircular(range(pattern), pattern.length);
+    }
+
+    public int count(String pattern) {
+        return count(bytes(pattern));
+    }
+
+    public int[] locate(String pattern) {
+        return locate(bytes(pattern));
+    }
+
+    // ---- Private helpers ----
+
+    // BWT rows [lo, hi) whose rotations start with pattern (backward search)
+    private int[] range(byte[] pattern) {
+        if (pattern == null) throw new IllegalArgumentException("pattern is null");
+        int lo = 0, hi = n;
+        for (int k = pattern.length - 1; k >= 0 && lo < hi; k--) {
+            int c = code[pattern[k] & 0xFF];
+            if (c < 0) return new int[]{0, 0};
+            lo = C[c] + occ(c, lo);
+            hi = C[c] + occ(c, hi);
+        }
+        if (lo > hi) hi = lo;
+        return new int[]{lo, hi};
+    }
+
+    private int[] locateCircular(int[] range, int m) {
+        int[] out = new int[range[1] - range[0]];
+        int k = 0;
+        for (int row = range[0]; row < range[1]; row++) {
+            int pos = position(row);
+            if (pos + m <= n) out[k++] = pos;
+        }
+        return (k == out.length) ? out : Arrays.copyOf(out, k);
+    }
+
+    // text position of the rotation in the given row
+    private int position(int row) {
+        int steps = 0;
+        while ((marked[row >>> 6] & (1L << row)) == 0) {
+            row = lf(row);
+            steps++;
+        }
+        return (samples[rankMarked(row)] + steps) % n;
+    }
+
+    // rotations counted by range() that start in the last m-1 bytes and wrap past the end
+    private int wrappingMatches(byte[] pattern) {
+        int m = pattern.length;
+        int k = 0;
+        for (int start = Math.max(1, n - m + 1); start < n; start++) {
+            boolean match = true;
+            for (int j = 0; j < m && match; j++) {
+                int p = start + j;
+                byte b = (p < n) ? tail[p - (n - tail.length)] : head[p - n];
+                match = (b == pattern[j]);
+            }
+            if (match) k++;
+        }
+        return k;
+    }
+
+    private int lf(int row) {
+        int c = code[bwt[row] & 0xFF];
+        return C[c] + occ(c, row);
+    }
+
+    // occurrences of symbol c in bwt[0, i)
+    private int occ(int c, int i) {
+        int b = i / BLOCK;
+        int count = superCount[(i / SUPER) * sigma + c] + blockCount[b * sigma + c];
+        byte target = sym[c];
+        for (int j = b * BLOCK; j < i; j++) if (bwt[j] == target) count++;
+        return count;
+    }
+
+    private int rankMarked(int row) {
+        int w = row >>> 6;
+        return markedRank[w] + Long.bitCount(marked[w] & ((1L << row) - 1));
+    }
+
+    private static byte[] readBytes(DataInputStream in, int len) throws IOException {
+        byte[] a = new byte[len];
+        in.readFully(a);
+        return a;
+    }
+
+    private static int[] readInts(DataInputStream in, int len) throws IOException {
+        int[] a = new int[len];
+        for (int i = 0; i < len; i++) a[i] = in.readInt();
+        return a;
+    }
+
+    private static byte[] bytes(String s) {
+        if (s == null) throw new IllegalArgumentException("pattern is null");
+        return s.getBytes(StandardCharsets.ISO_8859_1);
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length >= 3 && args[0].equals("build")) {
+            FMIndex index = FMIndex.build(Files.readAllBytes(Paths.get(args[1])));
+            index.save(args[2]);
+            System.out.println("indexed " + index.length() + " bytes");
+        } else if (args.length >= 3 && args[0].equals("search")) {
+            FMIndex index = FMIndex.load(args[1]);
+            for (int t = 2; t < args.length; t++) {
+                long start = System.nanoTime();
+                int count = index.count(args[t]);
+                long micros = (System.nanoTime() - start) / 1000;
+                int[] pos = index.locate(args[t]);
+                Arrays.sort(pos);
+                System.out.printf("%s: count = %d (%d us), first positions = %s\n", args[t], count, micros,
+                        Arrays.toString(Arrays.copyOf(pos, Math.min(pos.length, 10))));
+            }
+        } else {
+            System.out.println("Usage: java FMIndex build text index | java FMIndex search index pattern ...");
+        }
+    }
+}
@@ -6,52 +6,179 @@ import edu.princeton.cs.algs4.BinaryStdOut;
  * Usage:
  *   java MoveToFront -   (encode from BinaryStdIn to BinaryStdOut)
  *   java MoveToFront +   (decode)
+ *
+ * Bulk API:
+ *   encode(byte[] in, byte[] out) / decode(byte[] in, byte[] out) work on whole arrays
+ *   with no per-byte allocation; the Variant overloads select the update rule:
+ *     MTF      - classic move-to-front
+ *     MOVE_ONE - symbol at 1 moves to front, symbols further back move to position 1
+ *     STICKY   - like MOVE_ONE, but the symbol at 1 only moves to front
+ *                if the previous output index was not 0
+ *
+ * The symbol table is a 256-byte array; search and shift are fused into a single pass,
+ * so each byte costs O(index) with no System.arraycopy call.
  */
 public class MoveToFront {
+    private static final int R = 256;
+    private static final int CHUNK = 8192; // bytes buffered per stream read
+
+    private static final Metrics.Throughput ENCODE = Metrics.throughput("mtf.encode");
+    private static final Metrics.Throughput DECODE = Metrics.throughput("mtf.decode");
+
+    // update rule applied after each symbol
+    public enum Variant { MTF, MOVE_ONE, STICKY }
 
     // apply move-to-front encoding, reading from standard input and writing to standard output
     public static void encode() {
-        // initialize sequence of 256 extended ASCII characters
-        char[] seq = new char[256];
-        for (int i = 0; i < 256; i++) seq[i] = (char) i;
-
+        byte[] seq = identity();
+        byte[] in = new byte[CHUNK];
+        byte[] out = new byte[CHUNK];
         while (!BinaryStdIn.isEmpty()) {
-            char c = BinaryStdIn.readChar(); // reads 8-bit char
-            // find index of c in seq
-            int idx = 0;
-            while (seq[idx] != c) idx++;
-            // write index as 8-bit value
-            BinaryStdOut.write((char) idx);
-            // move to front
-            if (idx != 0) {
-                char temp = seq[idx];
-                System.arraycopy(seq, 0, seq, 1, idx);
-                seq[0] = temp;
-            }
+            int len = readChunk(in);
+            for (int i = 0; i < len; i++) out[i] = (byte) encodeByte(seq, in[i]);
+            writeChunk(out, len);
         }
         BinaryStdOut.flush();
     }
 
     // apply move-to-front decoding, reading from standard input and writing to standard output
     public static void decode() {
-        // initialize sequence
-        char[] seq = new char[256];
-        for (int i = 0; i < 256; i++) seq[i] = (char) i;
-
+        byte[] seq = identity();
+        byte[] in = new byte[CHUNK];
+        byte[] out = new byte[CHUNK];
         while (!BinaryStdIn.isEmpty()) {
-            int idx = BinaryStdIn.readChar(); // read 8-bit index as char then promoted to int 0..255
-            char c = seq[idx];
-            BinaryStdOut.write(c);
-            // move to front
-            if (idx != 0) {
-                char temp = seq[idx];
-                System.arraycopy(seq, 0, seq, 1, idx);
-                seq[0] = temp;
-            }
+            int len = readChunk(in);
+            for (int i = 0; i < len; i++) out[i] = decodeByte(seq, in[i] & 0xFF);
+            writeChunk(out, len);
         }
         BinaryStdOut.flush();
     }
 
+    // encode in[] into out[] (out.length >= in.length) using classic move-to-front
+    public static void encode(byte[] in, byte[] out) {
+        encode(in, out, Variant.MTF);
+    }
+
+    // decode in[] into out[] (out.length >= in.length) using classic move-to-front
+    public static void decode(byte[] in, byte[] out) {
+        decode(in, out, Variant.MTF);
+    }
+
+    // encode in[] into out[] using the given update rule
+    public static void encode(byte[] in, byte[] out, Variant variant) {
+        validate(in, out, variant);
+        long start = Metrics.ENABLED ? System.nanoTime() : 0;
+        encodeAll(in, out, variant);
+        if (Metrics.ENABLED) ENCODE.record(in.length, start);
+    }
+
+    // decode in[] into out[] using the given update rule (must match the encoder's)
+    public static void decode(byte[] in, byte[] out, Variant variant) {
+        validate(in, out, variant);
+        long start = Metrics.ENABLED ? System.nanoTime() : 0;
+        decodeAll(in, out, variant);
+        if (Metrics.ENABLED) DECODE.record(in.length, start);
+    }
+
+    private static void encodeAll(byte[] in, byte[] out, Variant variant) {
+        byte[] seq = identity();
+        int n = in.length;
+        if (variant == Variant.MTF) {
+            for (int i = 0; i < n; i++) out[i] = (byte) encodeByte(seq, in[i]);
+            return;
+        }
+        int prev = -1;
+        for (int i = 0; i < n; i++) {
+            byte c = in[i];
+            int idx = 0;
+            while (seq[idx] != c) idx++;
+            out[i] = (byte) idx;
+            update(seq, idx, prev, variant);
+            prev = idx;
+        }
+    }
+
+    private static void decodeAll(byte[] in, byte[] out, Variant variant) {
+        byte[] seq = identity();
+        int n = in.length;
+        if (variant == Variant.MTF) {
+            for (int i = 0; i < n; i++) out[i] = decodeByte(seq, in[i] & 0xFF);
+            return;
+        }
+        int prev = -1;
+        for (int i = 0; i < n; i++) {
+            int idx = in[i] & 0xFF;
+            out[i] = seq[idx];
+            update(seq, idx, prev, variant);
+            prev = idx;
+        }
+    }
+
+    // ---- Private helpers ----
+
+    private static byte[] identity() {
+        byte[] seq = new byte[R];
+        for (int i = 0; i < R; i++) seq[i] = (byte) i;
+        return seq;
+    }
+
+    // find c in seq while shifting the scanned prefix one slot back; returns old index of c
+    private static int encodeByte(byte[] seq, byte c) {
+        byte prev = seq[0];
+        if (prev == c) return 0;
+        int idx = 1;
+        while (true) {
+            byte cur = seq[idx];
+            seq[idx] = prev;
+            if (cur == c) break;
+            prev = cur;
+            idx++;
+        }
+        seq[0] = c;
+        return idx;
+    }
+
+    // return symbol at idx and move it to the front
+    private static byte decodeByte(byte[] seq, int idx) {
+        byte c = seq[idx];
+        for (int k = idx; k > 0; k--) seq[k] = seq[k - 1];
+        seq[0] = c;
+        return c;
+    }
+
+    // move the symbol at idx according to variant; prev is the previous output index (-1 at start)
+    private static void update(byte[] seq, int idx, int prev, Variant variant) {
+        if (idx == 0) return;
+        int target;
+        if (idx == 1) {
+            if (variant == Variant.STICKY && prev == 0) return;
+            target = 0;
+        } else {
+            target = 1;
+        }
+        byte c = seq[idx];
+        for (int k = idx; k > target; k--) seq[k] = seq[k - 1];
+        seq[target] = c;
+    }
+
+    private static void validate(byte[] in, byte[] out, Variant variant) {
+        if (in == null || out == null || variant == null) throw new IllegalArgumentException("Argument is null");
+        if (out.length < in.length) throw new IllegalArgumentException("output array shorter than input");
+    }
+
+    // read up to buf.length bytes from standard input; returns number read
+    private static int readChunk(byte[] buf) {
+        int len = 0;
+        while (len < buf.length && !BinaryStdIn.isEmpty()) {
+            buf[len++] = (byte) BinaryStdIn.readChar();
+        }
+        return len;
+    }
+
+    private static void writeChunk(byte[] buf, int len) {
+        for (int i = 0; i < len; i++) BinaryStdOut.write(buf[i]);
+    }
+
     // main: args[0] "-" => encode; "+" => decode
     public static void main(String[] args) {
         if (args.length == 0) {
@@ -0,0 +1,76 @@
+import java.util.Random;
+
+/**
+ * MoveToFrontBenchmark: throughput of the bulk MoveToFront API against the
+ * original char[] + System.arraycopy loop, on deterministic BWT-like input.
+ * Usage:
+ *   java MoveToFrontBenchmark [megabytes] [seed]
+ */
+public class MoveToFrontBenchmark {
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) {
+        int mb = (args.length > 0) ? Integer.parseInt(args[0]) : 16;
+        long seed = (args.length > 1) ? Long.parseLong(args[1]) : 42L;
+        byte[] in = bwtLike(mb << 20, seed);
+        byte[] out = new byte[in.length];
+        byte[] back = new byte[in.length];
+
+        report("reference", in.length, timeReference(in, out));
+        for (MoveToFront.Variant v : MoveToFront.Variant.values()) {
+            long encNs = Long.MAX_VALUE, decNs = Long.MAX_VALUE;
+            for (int r = 0; r < ROUNDS; r++) {
+                long t0 = System.nanoTime();
+                MoveToFront.encode(in, out, v);
+                long t1 = System.nanoTime();
+                MoveToFront.decode(out, back, v);
+                long t2 = System.nanoTime();
+                encNs = Math.min(encNs, t1 - t0);
+                decNs = Math.min(decNs, t2 - t1);
+            }
+            if (!java.util.Arrays.equals(in, back)) throw new IllegalStateException(v + " round trip failed");
+            report(v + " encode", in.length, encNs);
+            report(v + " decode", in.length, decNs);
+        }
+    }
+
+    // runs of a few dominant symbols with occasional jumps, like the last column of a BWT
+    static byte[] bwtLike(int n, long seed) {
+        Random random = new Random(seed);
+        byte[] a = new byte[n];
+        int i = 0;
+        while (i < n) {
+            int run = 1 + random.nextInt(16);
+            byte c = (byte) (random.nextInt(8) == 0 ? random.nextInt(256) : 'a' + random.nextInt(8));
+            for (int k = 0; k < run && i < n; k++) a[i++] = c;
+        }
+        return a;
+    }
+
+    // the original stream implementation's inner loop, minus the I/O
+    private static long timeReference(byte[] in, byte[] out) {
+        long best = Long.MAX_VALUE;
+        for (int r = 0; r < ROUNDS; r++) {
+            long t0 = System.nanoTime();
+            char[] seq = new char[256];
+            for (int i = 0; i < 256; i++) seq[i] = (char) i;
+            for (int i = 0; i < in.length; i++) {
+                char c = (char) (in[i] & 0xFF);
+                int idx = 0;
+                while (seq[idx] != c) idx++;
+                out[i] = (byte) idx;
+                if (idx != 0) {
+                    System.arraycopy(seq, 0, seq, 1, idx);
+                    seq[0] = c;
+                }
+            }
+            best = Math.min(best, System.nanoTime() - t0);
+        }
+        return best;
+    }
+
+    private static void report(String label, int bytes, long nanos) {
+        double mbps = (bytes / (1024.0 * 1024.0)) / (nanos / 1e9);
+        System.out.printf("%-16s %8.1f MB/s\n", label, mbps);
+    }
+}
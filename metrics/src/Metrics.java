@@ -0,0 +1,269 @@
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Metrics: named counters and latency/size histograms for the engines' hot paths.
+ *
+ * Metrics are off unless the JVM runs with -Dmetrics=true. ENABLED is a static final constant, so
+ * call sites written as
+ *
+ *     if (Metrics.ENABLED) VISITED.record(visited);
+ *
+ * are removed by the JIT when metrics are off, along with any counting that only feeds them.
+ *
+ * Histograms use HDR-style log-linear buckets: values below 32 have a bucket each, larger values
+ * share a bucket with others of the same top 5 bits, so every recorded value is known to within
+ * 1/32 (about 3%) from a fixed array of 1888 counters, with no allocation per record.
+ *
+ * Export: toJson() / writeJson(file), or -Dmetrics.out=file to write the JSON when the JVM exits.
+ * With -Dmetrics.jfr=true as well, every histogram record is also committed as a JFR event
+ * (algorithms.Metric) for viewing alongside a flight recording.
+ */
+public final class Metrics {
+    public static final boolean ENABLED = Boolean.getBoolean("metrics");
+    public static final boolean JFR = ENABLED && Boolean.getBoolean("metrics.jfr");
+
+    private static final Map<String, Counter> COUNTERS = new ConcurrentHashMap<>();
+    private static final Map<String, Histogram> HISTOGRAMS = new ConcurrentHashMap<>();
+
+    static {
+        String out = System.getProperty("metrics.out");
+        if (ENABLED && out != null) {
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> writeJson(out)));
+        }
+    }
+
+    private Metrics() { }
+
+    // the counter with this name, created on first use
+    public static Counter counter(String name) {
+        if (name == null) throw new IllegalArgumentException("name is null");
+        return COUNTERS.computeIfAbsent(name, Counter::new);
+    }
+
+    // the histogram with this name, created on first use
+    public static Histogram histogram(String name) {
+        if (name == null) throw new IllegalArgumentException("name is null");
+        return HISTOGRAMS.computeIfAbsent(name, Histogram::new);
+    }
+
+    // byte count and per-call rate of a codec stage, as <name>.bytes and <name>.bytesPerSecond
+    public static Throughput throughput(String name) {
+        return new Throughput(counter(name + ".bytes"), histogram(name + ".bytesPerSecond"));
+    }
+
+    // zero every counter and histogram
+    public static void reset() {
+        for (Counter c : COUNTERS.values()) c.reset();
+        for (Histogram h : HISTOGRAMS.values()) h.reset();
+    }
+
+    public static String toJson() {
+        StringBuilder sb = new StringBuilder("{\n  \"counters\": {");
+        String sep = "\n";
+        for (Map.Entry<String, Counter> e : new TreeMap<>(COUNTERS).entrySet()) {
+            sb.append(sep).append("    ").append(quote(e.getKey())).append(": ").append(e.getValue().sum());
+            sep = ",\n";
+        }
+        sb.append("\n  },\n  \"histograms\": {");
+        sep = "\n";
+        for (Map.Entry<String, Histogram> e : new TreeMap<>(HISTOGRAMS).entrySet()) {
+            Histogram h = e.getValue();
+            sb.append(sep).append("    ").append(quote(e.getKey())).append(": {");
+            sb.append("\"count\": ").append(h.count());
+            if (h.count() > 0) {
+                sb.append(", \"min\": ").append(h.min());
+                sb.append(", \"mean\": ").append(String.format("%.1f", h.mean()));
+                sb.append(", \"p50\": ").append(h.percentile(50));
+                sb.append(", \"p90\": ").append(h.percentile(90));
+                sb.append(", \"p99\": ").append(h.percentile(99));
+                sb.append(", \"p999\": ").append(h.percentile(99.9));
+                sb.append(", \"max\": ").append(h.max());
+            }
+            sb.append('}');
+            sep = ",\n";
+        }
+        return sb.append("\n  }\n}\n").toString();
+    }
+
+    public static void writeJson(String filename) {
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(Paths.get(filename), StandardCharsets.UTF_8))) {
+            out.print(toJson());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String quote(String s) {
+        return "\"" + s.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+    }
+
+    public static final class Counter {
+        private final String name;
+        private final LongAdder sum = new LongAdder();
+
+        private Counter(String name) {
+            this.name = name;
+        }
+
+        public String name() {
+            return name;
+        }
+
+        public void add(long n) {
+            sum.add(n);
+        }
+
+        public void increment() {
+            sum.increment();
+        }
+
+        public long sum() {
+            return sum.sum();
+        }
+
+        private void reset() {
+            sum.reset();
+        }
+    }
+
+    public static final class Histogram {
+        private static final int SUB_BITS = 5;
+        private static final int SUB = 1 << SUB_BITS;
+        private static final int BUCKETS = (64 - SUB_BITS) * SUB;   // values 0..31, then exponents 5..62
+
+        private final String name;
+        private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+        private final LongAdder count = new LongAdder();
+        private final LongAdder sum = new LongAdder();
+        private final AtomicLong min = new AtomicLong(Long.MAX_VALUE);
+        private final AtomicLong max = new AtomicLong(Long.MIN_VALUE);
+
+        private Histogram(String name) {
+            this.name = name;
+        }
+
+        public String name() {
+            return name;
+        }
+
+        // record a non-negative value (negative values are recorded as 0)
+        public void record(long value) {
+            if (value < 0) value = 0;
+            counts.incrementAndGet(bucket(value));
+            count.increment();
+            sum.add(value);
+            if (value < min.get()) min.accumulateAndGet(value, Math::min);
+            if (value > max.get()) max.accumulateAndGet(value, Math::max);
+            if (JFR) {
+                MetricEvent event = new MetricEvent();
+                event.metric = name;
+                event.value = value;
+                event.commit();
+            }
+        }
+
+        // record the nanoseconds elapsed since start (a System.nanoTime() value)
+        public void recordSince(long start) {
+            record(System.nanoTime() - start);
+        }
+
+        public long count() {
+            return count.sum();
+        }
+
+        public double mean() {
+            long n = count();
+            return (n == 0) ? Double.NaN : (double) sum.sum() / n;
+        }
+
+        public long min() {
+            return (count() == 0) ? 0 : min.get();
+        }
+
+        public long max() {
+            return (count() == 0) ? 0 : max.get();
+        }
+
+        // the smallest bucket bound at or below which p percent of the values fall (within 3%)
+        public long percentile(double p) {
+            if (p < 0 || p > 100) throw new IllegalArgumentException("percentile must be between 0 and 100");
+            long n = count();
+            if (n == 0) return 0;
+            long rank = Math.max(1, (long) Math.ceil(p / 100 * n));
+            long seen = 0;
+            for (int b = 0; b < BUCKETS; b++) {
+                seen += counts.get(b);
+                if (seen >= rank) return Math.min(max(), highest(b));
+            }
+            return max();
+        }
+
+        private void reset() {
+            for (int b = 0; b < BUCKETS; b++) counts.set(b, 0);
+            count.reset();
+            sum.reset();
+            min.set(Long.MAX_VALUE);
+            max.set(Long.MIN_VALUE);
+        }
+
+        // values below SUB map to themselves; otherwise (exponent, top SUB_BITS bits) pick the bucket
+        private static int bucket(long value) {
+            if (value < SUB) return (int) value;
+            int exp = 63 - Long.numberOfLeadingZeros(value);
+            int sub = (int) (value >>> (exp - SUB_BITS)) & (SUB - 1);
+            return (exp - SUB_BITS + 1) * SUB + sub;
+        }
+
+        // largest value in bucket b
+        private static long highest(int b) {
+            if (b < SUB) return b;
+            int exp = b / SUB + SUB_BITS - 1;
+            long lowest = (long) (SUB + b % SUB) << (exp - SUB_BITS);
+            return lowest + (1L << (exp - SUB_BITS)) - 1;
+        }
+    }
+
+    // bytes processed by a stage and the rate of each call
+    public static final class Throughput {
+        private final Counter bytes;
+        private final Histogram rate;
+
+        private Throughput(Counter bytes, Histogram rate) {
+            this.bytes = bytes;
+            this.rate = rate;
+        }
+
+        // one call that processed n bytes, started at start (a System.nanoTime() value)
+        public void record(long n, long start) {
+            long nanos = Math.max(1, System.nanoTime() - start);
+            bytes.add(n);
+            rate.record((long) (n * 1e9 / nanos));
+        }
+    }
+
+    @Name("algorithms.Metric")
+    @Label("Metric")
+    @Category("Algorithms")
+    static class MetricEvent extends jdk.jfr.Event {
+        @Label("Metric")
+        String metric;
+
+        @Label("Value")
+        long value;
+    }
+}